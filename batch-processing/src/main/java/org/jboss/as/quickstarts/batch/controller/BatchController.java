@@ -16,29 +16,22 @@
  */
 package org.jboss.as.quickstarts.batch.controller;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
-import java.util.Random;
-import java.util.Set;
-import java.util.TreeSet;
 import java.util.logging.Logger;
 
+import javax.annotation.PostConstruct;
 import javax.batch.operations.JobOperator;
-import javax.batch.operations.NoSuchJobException;
 import javax.batch.runtime.BatchRuntime;
-import javax.batch.runtime.JobExecution;
-import javax.batch.runtime.JobInstance;
 import javax.enterprise.inject.Model;
 import javax.faces.application.FacesMessage;
 import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseId;
 import javax.inject.Inject;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 
@@ -49,9 +42,16 @@ import javax.validation.constraints.Min;
 @Model
 public class BatchController {
 
+    private static final String[] JOB_NAMES = { "import-file", "import-file-partitioned" };
+
+    private static final int PAGE_SIZE = 10;
+
     @Inject
     private FacesContext facesContext;
 
+    @Inject
+    private JobExecutionsCache jobExecutionsCache;
+
     @Inject
     private Logger log;
 
@@ -59,41 +59,57 @@ public class BatchController {
 
     private boolean generateWithError;
 
+    private boolean seekableReader;
+
+    private boolean batchWriter;
+
+    private boolean bufferedFormatter;
+
+    @Min(1)
+    @Max(10000)
+    private Integer chunkSize = 3;
+
+    private boolean partitioned;
+
     @Min(0)
-    @Max(1000000)
-    private Integer numRecords = 10;
+    @Max(1000000000)
+    private Long numRecords = 10L;
+
+    // Percentage of records that reuse the name of the previous record
+    @DecimalMin("0")
+    @DecimalMax("100")
+    private Double duplicateRate = 0.0;
+
+    // Page of the jobs table, newest jobs first
+    private int page;
+
+    private List<JobData> jobsExecution;
+
+    // The jobs table is decoded before the hidden page input updates the model, so the page is read from the request
+    // up front. Otherwise the rows, and the Restart button in them, would come from the first page.
+    @PostConstruct
+    public void readPage() {
+        String requestedPage = facesContext.getExternalContext().getRequestParameterMap().get("form:page");
+        if (requestedPage != null) {
+            try {
+                page = Math.max(0, Integer.parseInt(requestedPage));
+            } catch (NumberFormatException e) {
+                page = 0;
+            }
+        }
+    }
 
     public void generate() throws IOException {
         File tempFile = new File(System.getProperty("java.io.tmpdir"), fileName);
-        try (BufferedWriter bos = new BufferedWriter(new FileWriter(tempFile, false))) {
-            log.info("Starting to generate " + numRecords + " records in file " + tempFile);
-            String previousName = null;
-            final Random random = new Random();
-            for (int x = 0; x < numRecords; x++) {
-                // generate random name
-                String name = random.ints('a','z'+1)
-                        .limit(10)
-                        .collect(StringBuilder::new, (sb, i) -> sb.append((char) i), StringBuilder::append)
-                        .toString();
-                // generate random phone number
-                String phone = random.ints('0','9'+1)
-                        .limit(9)
-                        .collect(StringBuilder::new, (sb, i) -> sb.append((char) i), StringBuilder::append)
-                        .toString();
-                // Generate a duplicate name;
-                if (generateWithError && x == (numRecords / 2)) {
-                    name = previousName;
-                }
-                String record = (x + 1) + "|" + name + "|" + phone;
-                bos.write(record + "\n");
-                previousName = name;
-            }
-            log.info("File generated at " + tempFile);
-            facesContext.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO,
-                "File generated with " + numRecords + " records to be imported. File name: " + getFileName(), null));
-            if (generateWithError) {
-                facesContext.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Attention: This file contains duplicate records for test purpose.", null));
-            }
+        log.info("Starting to generate " + numRecords + " records in file " + tempFile);
+        // Generate a duplicate name in the middle of the file if requested
+        long duplicateAt = generateWithError ? numRecords / 2 : -1;
+        new ContactsFileGenerator(numRecords, duplicateRate / 100, duplicateAt).generate(tempFile);
+        log.info("File generated at " + tempFile);
+        facesContext.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO,
+            "File generated with " + numRecords + " records to be imported. File name: " + getFileName(), null));
+        if (generateWithError || duplicateRate > 0) {
+            facesContext.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Attention: This file contains duplicate records for test purpose.", null));
         }
     }
 
@@ -106,66 +122,73 @@ public class BatchController {
         JobOperator jobOperator = BatchRuntime.getJobOperator();
         Properties jobParameters = new Properties();
         jobParameters.setProperty("fileName", getFileName());
-        long execID = jobOperator.start("import-file", jobParameters);
+        if (seekableReader) {
+            jobParameters.setProperty("readerRef", "seekableRecordsReader");
+        }
+        if (bufferedFormatter) {
+            jobParameters.setProperty("processorRef", "bufferedContactsFormatter");
+        }
+        if (batchWriter) {
+            jobParameters.setProperty("writerRef", "batchContactsPersister");
+        }
+        jobParameters.setProperty("chunkSize", String.valueOf(chunkSize));
+        long execID = jobOperator.start(partitioned ? "import-file-partitioned" : "import-file", jobParameters);
         facesContext.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "New job execution #" + execID + " running. Importing file:" + getFileName(), null));
     }
 
-    public Set<JobData> getJobsExecution() {
-        Set<JobData> jobsData = new TreeSet<JobData>(new Comparator<JobData>() {
-
-            @Override
-            public int compare(JobData o1, JobData o2) {
-                return o2.getJobInstanceId().compareTo(o1.getJobInstanceId());
-            }
-        });
-        Map<Long, JobExecution> jobIntances = new HashMap<>();
-        JobOperator jobOperator = BatchRuntime.getJobOperator();
-        try {
-            List<JobInstance> instances = jobOperator.getJobInstances("import-file", 0, jobOperator.getJobInstanceCount("import-file"));
-            for (JobInstance ji : instances) {
-                List<JobExecution> executions = jobOperator.getJobExecutions(ji);
-                for (JobExecution jobExecution : executions) {
-                    // initialize the map if null
-                    if (jobIntances.get(ji.getInstanceId()) == null) {
-                        jobIntances.put(ji.getInstanceId(), jobExecution);
-                    }
-                    // Update the jobExecution if is newer
-                    JobExecution existing = jobIntances.get(ji.getInstanceId());
-                    if (jobExecution.getExecutionId() > existing.getExecutionId()) {
-                        jobIntances.put(ji.getInstanceId(), jobExecution);
-                    }
-                }
-            }
-            for (Long instaceId : jobIntances.keySet()) {
-                JobExecution jobExecution = jobIntances.get(instaceId);
-                JobInstance ji = jobOperator.getJobInstance(jobExecution.getExecutionId());
-                Properties parameters = jobOperator.getParameters(jobExecution.getExecutionId());
-                jobsData.add(new JobData(ji.getInstanceId(), jobExecution.getExecutionId(), ji.getJobName(), jobExecution.getCreateTime(), jobExecution.getEndTime(), jobExecution
-                    .getBatchStatus(), parameters, jobExecution.getExitStatus()));
-            }
-        } catch (NoSuchJobException e) {
-            // It's ok if when doesn't have any jobs yet to show
+    public List<JobData> getJobsExecution() {
+        // JSF calls the getter several times per render, so the page is only loaded once when rendering. It is not kept
+        // from the earlier phases, since an action may change the page or the jobs.
+        if (jobsExecution != null && facesContext.getCurrentPhaseId() == PhaseId.RENDER_RESPONSE) {
+            return jobsExecution;
+        }
+        List<JobData> jobs = jobExecutionsCache.getJobs(JOB_NAMES, page * PAGE_SIZE, PAGE_SIZE);
+        if (facesContext.getCurrentPhaseId() == PhaseId.RENDER_RESPONSE) {
+            jobsExecution = jobs;
         }
+        return jobs;
+    }
+
+    public boolean isNextPageAvailable() {
+        return (page + 1) * PAGE_SIZE < jobExecutionsCache.getJobCount(JOB_NAMES);
+    }
 
-        return jobsData;
+    public void nextPage() {
+        page++;
+        jobsExecution = null;
+    }
+
+    public void previousPage() {
+        page = Math.max(0, page - 1);
+        jobsExecution = null;
     }
 
     public void restartJob(int executionId) {
         JobOperator jobOperator = BatchRuntime.getJobOperator();
         Properties jobParameters = jobOperator.getParameters(executionId);
         jobParameters.setProperty("restartedOnce", "true");
+        jobExecutionsCache.invalidate(jobOperator.getJobInstance(executionId).getInstanceId());
         long newExecutionId = jobOperator.restart(executionId, jobParameters);
+        jobsExecution = null;
         facesContext.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Execution " + executionId + " restarted! New execution id: " + newExecutionId, null));
     }
 
-    public Integer getNumRecords() {
+    public Long getNumRecords() {
         return numRecords;
     }
 
-    public void setNumRecords(Integer numRecords) {
+    public void setNumRecords(Long numRecords) {
         this.numRecords = numRecords;
     }
 
+    public Double getDuplicateRate() {
+        return duplicateRate;
+    }
+
+    public void setDuplicateRate(Double duplicateRate) {
+        this.duplicateRate = duplicateRate;
+    }
+
     public boolean isGenerateWithError() {
         return generateWithError;
     }
@@ -174,6 +197,55 @@ public class BatchController {
         this.generateWithError = generateWithError;
     }
 
+    public boolean isSeekableReader() {
+        return seekableReader;
+    }
+
+    public void setSeekableReader(boolean seekableReader) {
+        this.seekableReader = seekableReader;
+    }
+
+    public boolean isBufferedFormatter() {
+        return bufferedFormatter;
+    }
+
+    public void setBufferedFormatter(boolean bufferedFormatter) {
+        this.bufferedFormatter = bufferedFormatter;
+    }
+
+    public boolean isBatchWriter() {
+        return batchWriter;
+    }
+
+    public void setBatchWriter(boolean batchWriter) {
+        this.batchWriter = batchWriter;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    public void setPartitioned(boolean partitioned) {
+        this.partitioned = partitioned;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+        jobsExecution = null;
+    }
+
     public String getFileName() {
         return fileName;
     }
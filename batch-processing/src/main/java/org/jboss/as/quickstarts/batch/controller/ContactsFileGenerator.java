@@ -0,0 +1,149 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+//This class generates the files to be imported. The records are generated in blocks on the fork-join pool, each block
+//in its own byte buffer, and the blocks are written in order with gathering writes. Lines look like id|name|phone
+public class ContactsFileGenerator {
+
+    private static final int BLOCK_RECORDS = 32 * 1024;
+
+    // 10 digits id + 10 letters name + 9 digits phone + 2 separators + line feed
+    private static final int MAX_RECORD_LENGTH = 32;
+
+    private static final int NAME_LENGTH = 10;
+
+    private static final int PHONE_LENGTH = 9;
+
+    private static final long NAME_BOUND = (long) Math.pow(26, NAME_LENGTH);
+
+    // The names are a permutation of the record indexes, x -> (NAME_MULTIPLIER * x + NAME_OFFSET) mod NAME_BOUND, which is a
+    // bijection since the multiplier is coprime with 26. The multiplier is small enough for the product not to overflow
+    private static final long NAME_MULTIPLIER = 48271;
+
+    private static final long NAME_OFFSET = NAME_BOUND / 3;
+
+    private static final int PHONE_BOUND = 1_000_000_000;
+
+    private final long numRecords;
+
+    private final double duplicateRate;
+
+    private final long duplicateAt;
+
+    // Generates a file with numRecords records, with unique names. Each record has the probability duplicateRate of reusing
+    // the name of an earlier record, and the record at duplicateAt (-1 for none) always does
+    public ContactsFileGenerator(long numRecords, double duplicateRate, long duplicateAt) {
+        this.numRecords = numRecords;
+        this.duplicateRate = duplicateRate;
+        this.duplicateAt = duplicateAt;
+    }
+
+    public void generate(File file) throws IOException {
+        long blocks = (numRecords + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        // Generate a few blocks per thread at a time, so the memory used doesn't depend on the number of records
+        int blocksPerWrite = ForkJoinPool.getCommonPoolParallelism() * 2;
+        SplittableRandom seeds = new SplittableRandom();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long first = 0; first < blocks; first += blocksPerWrite) {
+                int count = (int) Math.min(blocksPerWrite, blocks - first);
+                long firstBlock = first;
+                SplittableRandom[] randoms = new SplittableRandom[count];
+                for (int i = 0; i < count; i++) {
+                    randoms[i] = seeds.split();
+                }
+                ByteBuffer[] buffers = IntStream.range(0, count)
+                    .parallel()
+                    .mapToObj(i -> generateBlock(firstBlock + i, randoms[i]))
+                    .toArray(ByteBuffer[]::new);
+                while (buffers[count - 1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+            }
+        }
+    }
+
+    private ByteBuffer generateBlock(long block, SplittableRandom random) {
+        long firstRecord = block * BLOCK_RECORDS;
+        long lastRecord = Math.min(firstRecord + BLOCK_RECORDS, numRecords);
+        byte[] bytes = new byte[(int) (lastRecord - firstRecord) * MAX_RECORD_LENGTH];
+        int position = 0;
+        boolean duplicatePending = false;
+        for (long x = firstRecord; x < lastRecord; x++) {
+            position = writeNumber(bytes, position, x + 1);
+            bytes[position++] = '|';
+            if (x == duplicateAt || (duplicateRate > 0 && random.nextDouble() < duplicateRate)) {
+                duplicatePending = true;
+            }
+            // The first record has no earlier name to reuse, so the duplicate goes to the next record
+            if (duplicatePending && x > 0) {
+                writeName(bytes, position, name(random.nextLong(x)));
+                duplicatePending = false;
+            } else {
+                writeName(bytes, position, name(x));
+            }
+            position += NAME_LENGTH;
+            bytes[position++] = '|';
+            writePhone(bytes, position, random.nextInt(PHONE_BOUND));
+            position += PHONE_LENGTH;
+            bytes[position++] = '\n';
+        }
+        return ByteBuffer.wrap(bytes, 0, position);
+    }
+
+    private static int writeNumber(byte[] bytes, int position, long value) {
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + digits;
+    }
+
+    // Returns the name of the record with the given index, as a number below NAME_BOUND
+    static long name(long x) {
+        return (NAME_MULTIPLIER * (x % NAME_BOUND) + NAME_OFFSET) % NAME_BOUND;
+    }
+
+    private static void writeName(byte[] bytes, int position, long value) {
+        for (int i = 0; i < NAME_LENGTH; i++) {
+            bytes[position + i] = (byte) ('a' + value % 26);
+            value /= 26;
+        }
+    }
+
+    private static void writePhone(byte[] bytes, int position, int value) {
+        for (int i = PHONE_LENGTH - 1; i >= 0; i--) {
+            bytes[position + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+}
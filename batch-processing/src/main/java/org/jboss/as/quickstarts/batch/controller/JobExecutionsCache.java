@@ -0,0 +1,114 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.batch.operations.JobOperator;
+import javax.batch.operations.NoSuchJobException;
+import javax.batch.runtime.BatchRuntime;
+import javax.batch.runtime.BatchStatus;
+import javax.batch.runtime.JobExecution;
+import javax.batch.runtime.JobInstance;
+import javax.enterprise.context.ApplicationScoped;
+
+//This class keeps the latest execution of the most recent job instances, so the jobs table doesn't query the job
+//repository for the whole history on every render. Only executions that are still running are refreshed.
+@ApplicationScoped
+public class JobExecutionsCache {
+
+    private static final int MAX_ENTRIES = 1000;
+
+    private final Map<Long, JobData> cache = Collections.synchronizedMap(new LinkedHashMap<Long, JobData>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, JobData> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    });
+
+    // Returns the latest execution of the job instances in the page, newest first
+    public List<JobData> getJobs(String[] jobNames, int offset, int limit) {
+        JobOperator jobOperator = BatchRuntime.getJobOperator();
+        // The instances are returned newest first, so the page can't be beyond offset + limit for any job name
+        List<JobInstance> instances = new ArrayList<>();
+        for (String jobName : jobNames) {
+            try {
+                instances.addAll(jobOperator.getJobInstances(jobName, 0, offset + limit));
+            } catch (NoSuchJobException e) {
+                // It's ok if when doesn't have any jobs yet to show
+            }
+        }
+        instances.sort(Comparator.comparingLong(JobInstance::getInstanceId).reversed());
+        List<JobData> jobsData = new ArrayList<>(limit);
+        for (int i = offset; i < instances.size() && i < offset + limit; i++) {
+            jobsData.add(getJobData(jobOperator, instances.get(i)));
+        }
+        return jobsData;
+    }
+
+    public int getJobCount(String[] jobNames) {
+        JobOperator jobOperator = BatchRuntime.getJobOperator();
+        int count = 0;
+        for (String jobName : jobNames) {
+            try {
+                count += jobOperator.getJobInstanceCount(jobName);
+            } catch (NoSuchJobException e) {
+                // It's ok if when doesn't have any jobs yet to show
+            }
+        }
+        return count;
+    }
+
+    // A restart creates a new execution for the same job instance
+    public void invalidate(long jobInstanceId) {
+        cache.remove(jobInstanceId);
+    }
+
+    private JobData getJobData(JobOperator jobOperator, JobInstance ji) {
+        JobData cached = cache.get(ji.getInstanceId());
+        if (cached != null && isTerminal(cached.getBatchStatus())) {
+            return cached;
+        }
+        JobExecution latest = null;
+        for (JobExecution jobExecution : jobOperator.getJobExecutions(ji)) {
+            // Keep the newest jobExecution
+            if (latest == null || jobExecution.getExecutionId() > latest.getExecutionId()) {
+                latest = jobExecution;
+            }
+        }
+        Properties parameters = jobOperator.getParameters(latest.getExecutionId());
+        JobData jobData = new JobData(ji.getInstanceId(), latest.getExecutionId(), ji.getJobName(), latest.getCreateTime(), latest.getEndTime(),
+            latest.getBatchStatus(), parameters, latest.getExitStatus());
+        cache.put(ji.getInstanceId(), jobData);
+        return jobData;
+    }
+
+    private static boolean isTerminal(BatchStatus batchStatus) {
+        return batchStatus == BatchStatus.COMPLETED || batchStatus == BatchStatus.FAILED || batchStatus == BatchStatus.STOPPED
+            || batchStatus == BatchStatus.ABANDONED;
+    }
+
+}
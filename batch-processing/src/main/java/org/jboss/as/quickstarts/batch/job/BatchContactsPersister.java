@@ -0,0 +1,38 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.job;
+
+import java.util.List;
+
+import javax.inject.Named;
+
+//This class persists the whole chunk with a single flush, so Hibernate sends the inserts as one JDBC batch
+//(see hibernate.jdbc.batch_size in persistence.xml). The persistence context is cleared after each chunk
+//to keep the memory usage flat no matter how many records are imported
+@Named("batchContactsPersister")
+public class BatchContactsPersister extends ContactsPersister {
+
+    @Override
+    public void writeItems(List<Object> items) throws Exception {
+        for (Object item : items) {
+            entityManager.persist(item);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+}
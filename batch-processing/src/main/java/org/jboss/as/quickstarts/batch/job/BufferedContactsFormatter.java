@@ -0,0 +1,115 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.job;
+
+import java.util.logging.Logger;
+
+import javax.batch.api.BatchProperty;
+import javax.batch.api.chunk.ItemProcessor;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.jboss.as.quickstarts.batch.model.Contact;
+
+//This class does the same as ContactsFormatter, but it is meant for big files. It builds the new values in a reused
+//buffer instead of using string concatenation and regular expressions, and it only logs a summary every logInterval items
+@Named("bufferedContactsFormatter")
+public class BufferedContactsFormatter implements ItemProcessor {
+
+    private static final int DEFAULT_LOG_INTERVAL = 1000;
+
+    @Inject
+    private Logger log;
+
+    // Here you can inject a property defined in import-file.xml
+    @Inject
+    @BatchProperty
+    private String logInterval;
+
+    // A processor instance is used by a single thread (or partition), so the buffer can be reused
+    private final StringBuilder buffer = new StringBuilder(32);
+
+    private long processed;
+
+    private long masked;
+
+    private int interval;
+
+    @Override
+    public Object processItem(Object item) throws Exception {
+        if (interval == 0) {
+            interval = logInterval == null || logInterval.isEmpty() ? DEFAULT_LOG_INTERVAL : Integer.parseInt(logInterval);
+        }
+        Contact c = (Contact) item;
+        // Update the name to use just the first letter as upper case
+        c.setName(properCase(c.getName()));
+
+        // Apply mask to the phone number
+        String phone = c.getPhone();
+        String newPhone = maskPhone(phone);
+        if (newPhone != phone) {
+            c.setPhone(newPhone);
+            masked++;
+        }
+        if (++processed % interval == 0) {
+            log.info("Formatted " + processed + " contacts (" + masked + " phone numbers masked). Last one: " + c);
+        }
+        return c;
+    }
+
+    private String properCase(String name) {
+        buffer.setLength(0);
+        buffer.append(Character.toUpperCase(name.charAt(0)));
+        for (int i = 1; i < name.length(); i++) {
+            buffer.append(Character.toLowerCase(name.charAt(i)));
+        }
+        return buffer.toString();
+    }
+
+    // Same result as phone.replaceFirst("(\\d{3})(\\d{3})(\\d+)", "($1)-$2-$3"): the first run of at least 7 digits
+    // is formatted as (ddd)-ddd-d... Returns the same instance if there is no such run
+    String maskPhone(String phone) {
+        int length = phone.length();
+        int start = 0;
+        while (start < length) {
+            if (!isDigit(phone.charAt(start))) {
+                start++;
+                continue;
+            }
+            int end = start + 1;
+            while (end < length && isDigit(phone.charAt(end))) {
+                end++;
+            }
+            if (end - start >= 7) {
+                buffer.setLength(0);
+                buffer.append(phone, 0, start)
+                    .append('(').append(phone, start, start + 3).append(")-")
+                    .append(phone, start + 3, start + 6).append('-')
+                    .append(phone, start + 6, length);
+                return buffer.toString();
+            }
+            start = end;
+        }
+        return phone;
+    }
+
+    // Same digits as the \d character class
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
@@ -28,12 +28,38 @@ public class ChunkCheckpoint implements Serializable {
 
     private long lineNumber;
 
+    // Position in the file right after the last line read. Only maintained by the SeekableRecordsReader
+    private long byteOffset;
+
+    public ChunkCheckpoint() {
+    }
+
+    // Used by partitions that start reading in the middle of the file
+    public ChunkCheckpoint(long byteOffset) {
+        this.byteOffset = byteOffset;
+    }
+
+    // Used when the position of a line is found after the line was counted
+    public ChunkCheckpoint(long lineNumber, long byteOffset) {
+        this.lineNumber = lineNumber;
+        this.byteOffset = byteOffset;
+    }
+
     public void increase() {
         lineNumber++;
     }
 
+    public void increase(long nextByteOffset) {
+        lineNumber++;
+        byteOffset = nextByteOffset;
+    }
+
     public long getLineNumber() {
         return lineNumber;
     }
 
+    public long getByteOffset() {
+        return byteOffset;
+    }
+
 }
@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.job;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import javax.batch.api.BatchProperty;
+import javax.batch.api.partition.PartitionMapper;
+import javax.batch.api.partition.PartitionPlan;
+import javax.batch.api.partition.PartitionPlanImpl;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+//This class splits the file in byte ranges, one per partition. Each range starts at the beginning of a line,
+//so every partition can read its records with its own SeekableRecordsReader
+@Named("contactsPartitionMapper")
+public class ContactsPartitionMapper implements PartitionMapper {
+
+    // Here you can inject a property defined in import-file-partitioned.xml
+    @Inject
+    @BatchProperty
+    private String fileName;
+
+    // Here you can inject a property defined in import-file-partitioned.xml
+    @Inject
+    @BatchProperty
+    private String partitions;
+
+    // Here you can inject a property defined in import-file-partitioned.xml
+    @Inject
+    @BatchProperty
+    private String threads;
+
+    @Inject
+    private Logger log;
+
+    @Override
+    public PartitionPlan mapPartitions() throws Exception {
+        int requestedPartitions = partitions == null || partitions.isEmpty()
+            ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(partitions);
+        try (FileChannel channel = FileChannel.open(new File(System.getProperty("java.io.tmpdir"), fileName).toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            // Don't create partitions for tiny files
+            int count = (int) Math.max(1, Math.min(requestedPartitions, size / 1024));
+            long[] boundaries = new long[count + 1];
+            boundaries[count] = size;
+            for (int i = 1; i < count; i++) {
+                boundaries[i] = nextLineStart(channel, Math.max(boundaries[i - 1], size * i / count), size);
+            }
+            Properties[] partitionProperties = new Properties[count];
+            for (int i = 0; i < count; i++) {
+                partitionProperties[i] = new Properties();
+                partitionProperties[i].setProperty("startOffset", String.valueOf(boundaries[i]));
+                partitionProperties[i].setProperty("endOffset", String.valueOf(boundaries[i + 1]));
+            }
+            log.info("Splitting " + size + " bytes of file " + fileName + " in " + count + " partitions");
+            PartitionPlanImpl plan = new PartitionPlanImpl();
+            plan.setPartitions(count);
+            // More partitions than threads is fine, the extra partitions wait for a free thread
+            plan.setThreads(Math.min(count, maxThreads()));
+            plan.setPartitionProperties(partitionProperties);
+            return plan;
+        }
+    }
+
+    // Returns the configured limit of threads running partitions, or the number of available processors
+    private int maxThreads() {
+        int maxThreads = threads == null || threads.isEmpty()
+            ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threads);
+        return Math.max(1, maxThreads);
+    }
+
+    // Returns the position right after the first line feed found at or after the given position
+    private static long nextLineStart(FileChannel channel, long position, long size) throws Exception {
+        if (position == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        // The line feed may be the byte just before the position, in which case a line already starts there
+        long current = position - 1;
+        while (current < size) {
+            buffer.clear();
+            int read = channel.read(buffer, current);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return current + i + 1;
+                }
+            }
+            current += read;
+        }
+        return size;
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.job;
+
+import java.util.logging.Logger;
+
+import javax.batch.api.partition.AbstractPartitionReducer;
+import javax.batch.runtime.context.StepContext;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.UserTransaction;
+
+//This class cleans the database once, before the partitions of the step start. It is only done on the first
+//execution of the step, a restarted step keeps the contacts that the partitions already persisted
+@Named("contactsPartitionReducer")
+public class ContactsPartitionReducer extends AbstractPartitionReducer {
+
+    @Inject
+    private EntityManager entityManager;
+
+    @Inject
+    private UserTransaction userTransaction;
+
+    @Inject
+    private StepContext stepContext;
+
+    @Inject
+    private Logger log;
+
+    @Override
+    public void beginPartitionedStep() throws Exception {
+        // The persistent user data is kept with the step execution, so it is only null on the first execution
+        if (stepContext.getPersistentUserData() != null) {
+            return;
+        }
+        log.info("First execution of the partitioned step. Cleaning the Database");
+        try {
+            userTransaction.begin();
+            entityManager.createQuery("DELETE FROM Contact c").executeUpdate();
+            userTransaction.commit();
+        } finally {
+            if (userTransaction.getStatus() == Status.STATUS_ACTIVE) {
+                userTransaction.rollback();
+            }
+        }
+        stepContext.setPersistentUserData(Boolean.TRUE);
+    }
+
+}
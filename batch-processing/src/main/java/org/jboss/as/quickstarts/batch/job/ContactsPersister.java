@@ -20,6 +20,7 @@ import java.io.Serializable;
 import java.util.List;
 import java.util.logging.Logger;
 
+import javax.batch.api.BatchProperty;
 import javax.batch.api.chunk.AbstractItemWriter;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -32,20 +33,25 @@ import org.jboss.as.quickstarts.batch.model.Contact;
 public class ContactsPersister extends AbstractItemWriter {
 
     @Inject
-    private EntityManager entityManager;
+    protected EntityManager entityManager;
 
     @Inject
     private Logger log;
 
+    // Partitions set this property to false, the cleanup is then done once by the ContactsPartitionReducer
+    @Inject
+    @BatchProperty
+    private String cleanDatabase;
+
     private Boolean hasCheckPoint;
 
     @Override
     public void open(Serializable checkpoint) throws Exception {
-        if (checkpoint == null) {
+        if (checkpoint == null && !"false".equals(cleanDatabase)) {
             log.info("No checkpoint detected. Cleaning the Database");
             entityManager.createQuery("DELETE FROM Contact c").executeUpdate();
-            hasCheckPoint = true;
         }
+        hasCheckPoint = true;
 
     }
 
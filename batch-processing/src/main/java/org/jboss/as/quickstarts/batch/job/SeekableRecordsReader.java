@@ -0,0 +1,216 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.job;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+import javax.batch.api.BatchProperty;
+import javax.batch.api.chunk.ItemReader;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.jboss.as.quickstarts.batch.model.Contact;
+
+//This class reads the same file as RecordsReader, but it stores the byte offset of the next line in the checkpoint.
+//On restart it seeks straight to that offset instead of reading every line again, and it parses the fields
+//directly from the read buffer without any regular expression
+@Named("seekableRecordsReader")
+public class SeekableRecordsReader implements ItemReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Here you can inject a property defined in import-file.xml
+    @Inject
+    @BatchProperty
+    private String separator;
+
+    // Here you can inject a property defined in import-file.xml
+    @Inject
+    @BatchProperty
+    private String fileName;
+
+    // Byte range to read, set for each partition of import-file-partitioned.xml. By default the whole file is read
+    @Inject
+    @BatchProperty
+    private String startOffset;
+
+    @Inject
+    @BatchProperty
+    private String endOffset;
+
+    @Inject
+    private Logger log;
+
+    private FileChannel channel;
+
+    private ByteBuffer buffer;
+
+    // Position in the file of the first byte available in the buffer
+    private long bufferOffset;
+
+    private boolean endOfFile;
+
+    private byte separatorByte;
+
+    // Lines starting at or after this position belong to the next partition
+    private long rangeEnd;
+
+    private ChunkCheckpoint checkpoint;
+
+    @Override
+    public void close() throws Exception {
+        channel.close();
+    }
+
+    @Override
+    public void open(Serializable previousCheckpoint) throws Exception {
+        // Verify if we have an previous checkpoint
+        if (previousCheckpoint == null) {
+            this.checkpoint = new ChunkCheckpoint(startOffset == null ? 0 : Long.parseLong(startOffset));
+        }
+        else {
+            this.checkpoint = (ChunkCheckpoint) previousCheckpoint;
+        }
+        rangeEnd = endOffset == null ? Long.MAX_VALUE : Long.parseLong(endOffset);
+        separatorByte = (byte) (separator == null || separator.isEmpty() ? '|' : separator.charAt(0));
+        channel = FileChannel.open(new File(System.getProperty("java.io.tmpdir"), fileName).toPath(), StandardOpenOption.READ);
+        bufferOffset = checkpoint.getByteOffset();
+        channel.position(bufferOffset);
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        long lineNumber = checkpoint.getLineNumber();
+        if (lineNumber > 0 && bufferOffset == 0) {
+            // A checkpoint of the RecordsReader only counts the lines, they have to be read again to find where to resume
+            log.info("Skipping to line " + lineNumber + " as marked by previous checkpoint");
+            skipLines(lineNumber);
+            checkpoint = new ChunkCheckpoint(lineNumber, bufferOffset + buffer.position());
+        } else if (lineNumber > 0) {
+            log.info("Seeking to byte " + bufferOffset + " (line " + lineNumber + ") as marked by previous checkpoint");
+        }
+    }
+
+    @Override
+    public Contact readItem() throws Exception {
+        if (bufferOffset + buffer.position() >= rangeEnd) {
+            return null;
+        }
+        int lineEnd = findLineEnd();
+        if (lineEnd < 0) {
+            return null;
+        }
+        byte[] bytes = buffer.array();
+        int start = buffer.position();
+        int firstSeparator = indexOf(bytes, start, lineEnd, separatorByte);
+        int secondSeparator = indexOf(bytes, firstSeparator + 1, lineEnd, separatorByte);
+        // Ignore a Windows line ending
+        int end = lineEnd > start && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+        if (firstSeparator < 0 || secondSeparator < 0) {
+            throw new IllegalStateException("Malformed record at line " + (checkpoint.getLineNumber() + 1) + ": "
+                + new String(bytes, start, end - start, StandardCharsets.UTF_8));
+        }
+        Contact contact = new Contact();
+        contact.setId(parseInt(bytes, start, firstSeparator));
+        contact.setName(new String(bytes, firstSeparator + 1, secondSeparator - firstSeparator - 1, StandardCharsets.UTF_8));
+        contact.setPhone(new String(bytes, secondSeparator + 1, end - secondSeparator - 1, StandardCharsets.UTF_8));
+        // skip the line and its line feed (if any)
+        int next = Math.min(lineEnd + 1, buffer.limit());
+        buffer.position(next);
+        // update the checkpoint
+        checkpoint.increase(bufferOffset + next);
+        return contact;
+    }
+
+    @Override
+    public Serializable checkpointInfo() throws Exception {
+        return checkpoint;
+    }
+
+    private void skipLines(long count) throws Exception {
+        for (long i = 0; i < count; i++) {
+            int lineEnd = findLineEnd();
+            if (lineEnd < 0) {
+                return;
+            }
+            buffer.position(Math.min(lineEnd + 1, buffer.limit()));
+        }
+    }
+
+    // Returns the index in the buffer array of the line feed ending the current line, refilling the buffer as needed.
+    // A last line without a line feed ends at the buffer limit. Returns -1 when there are no more lines.
+    private int findLineEnd() throws Exception {
+        int searchFrom = buffer.position();
+        while (true) {
+            int lineEnd = indexOf(buffer.array(), searchFrom, buffer.limit(), (byte) '\n');
+            if (lineEnd >= 0) {
+                return lineEnd;
+            }
+            if (endOfFile) {
+                return buffer.hasRemaining() ? buffer.limit() : -1;
+            }
+            searchFrom = buffer.remaining();
+            fill();
+        }
+    }
+
+    // Moves the unread bytes to the start of the buffer and reads more data from the channel
+    private void fill() throws Exception {
+        bufferOffset += buffer.position();
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            // a single line is bigger than the buffer
+            ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+        if (channel.read(buffer) < 0) {
+            endOfFile = true;
+        }
+        buffer.flip();
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int parseInt(byte[] bytes, int from, int to) {
+        if (from == to) {
+            throw new NumberFormatException("Empty id");
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid id: " + new String(bytes, from, to - from, StandardCharsets.UTF_8));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+}
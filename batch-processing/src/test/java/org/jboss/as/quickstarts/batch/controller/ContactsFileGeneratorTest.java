@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ContactsFileGeneratorTest {
+
+    // More than a block, so that names are checked across blocks
+    private static final int RECORDS = 100_000;
+
+    @Test
+    public void testNamesAreUnique() throws IOException {
+        List<String> lines = generate(RECORDS, 0, -1);
+        assertEquals(RECORDS, lines.size());
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String[] fields = lines.get(i).split("\\|");
+            assertEquals(String.valueOf(i + 1), fields[0]);
+            assertTrue("Duplicate name at line " + (i + 1), names.add(fields[1]));
+        }
+    }
+
+    @Test
+    public void testDuplicateAt() throws IOException {
+        List<String> lines = generate(RECORDS, 0, RECORDS / 2);
+        Set<String> names = new HashSet<>();
+        int duplicates = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            if (!names.add(lines.get(i).split("\\|")[1])) {
+                assertEquals(RECORDS / 2, i);
+                duplicates++;
+            }
+        }
+        assertEquals(1, duplicates);
+    }
+
+    @Test
+    public void testDuplicateRate() throws IOException {
+        List<String> lines = generate(RECORDS, 0.01, -1);
+        Set<String> names = new HashSet<>();
+        for (String line : lines) {
+            names.add(line.split("\\|")[1]);
+        }
+        int duplicates = RECORDS - names.size();
+        // 1000 expected, the standard deviation is about 31
+        assertTrue("Unexpected duplicates " + duplicates, duplicates > 800 && duplicates < 1200);
+    }
+
+    @Test
+    public void testNameIsAPermutation() {
+        assertNotEquals(ContactsFileGenerator.name(0), ContactsFileGenerator.name(1));
+        long bound = (long) Math.pow(26, 10);
+        // The last index must not overflow
+        assertTrue(ContactsFileGenerator.name(bound - 1) >= 0);
+        assertTrue(ContactsFileGenerator.name(bound - 1) < bound);
+        assertEquals(ContactsFileGenerator.name(0), ContactsFileGenerator.name(bound));
+    }
+
+    private static List<String> generate(long records, double duplicateRate, long duplicateAt) throws IOException {
+        File file = File.createTempFile("contacts", ".txt");
+        try {
+            new ContactsFileGenerator(records, duplicateRate, duplicateAt).generate(file);
+            return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BufferedContactsFormatterTest {
+
+    private static final String[] PHONES = {
+        // representative numbers
+        "2125551234", "212-555-1234", "(212) 555-1234", "+1 2125551234", "555-1234", "5551234", "001155512345678",
+        // fewer than 7 digits in a row
+        "", "1", "123456", "123-4567", "12 34 56 78", "phone", "ext. 123456",
+        // exactly 7 digits, and a run starting after shorter ones
+        "1234567", "12-1234567", "123456 1234567", "x1234567y",
+        // only the first long run is masked
+        "1234567 7654321", "12345678901234567890",
+        // characters that are not ASCII digits
+        "\u0661\u0662\u0663\u0664\u0665\u0666\u0667", "123\u0664567", "\uFF11\uFF12\uFF13\uFF14\uFF15\uFF16\uFF17" };
+
+    private final BufferedContactsFormatter formatter = new BufferedContactsFormatter();
+
+    @Test
+    public void testSameMaskAsReplaceFirst() {
+        for (String phone : PHONES) {
+            assertEquals("Phone \"" + phone + "\"", replaceFirst(phone), formatter.maskPhone(phone));
+        }
+    }
+
+    @Test
+    public void testSameMaskAsReplaceFirstOnRandomPhones() {
+        Random random = new Random(42);
+        String alphabet = "0123456789 -()+x";
+        for (int i = 0; i < 10000; i++) {
+            StringBuilder phone = new StringBuilder();
+            int length = random.nextInt(20);
+            for (int j = 0; j < length; j++) {
+                // mostly digits, so that runs of 7 and more are frequent
+                int index = random.nextInt(4) == 0 ? 10 + random.nextInt(6) : random.nextInt(10);
+                phone.append(alphabet.charAt(index));
+            }
+            String value = phone.toString();
+            assertEquals("Phone \"" + value + "\"", replaceFirst(value), formatter.maskPhone(value));
+        }
+    }
+
+    @Test
+    public void testUnmaskedPhoneIsTheSameInstance() {
+        String phone = "555-1234";
+        assertSame(phone, formatter.maskPhone(phone));
+    }
+
+    // The formatting of ContactsFormatter
+    private static String replaceFirst(String phone) {
+        return phone.replaceFirst("(\\d{3})(\\d{3})(\\d+)", "($1)-$2-$3");
+    }
+}
@@ -52,7 +52,8 @@ import javax.validation.constraints.NotEmpty;
 @Entity
 @NamedQueries({
     @NamedQuery(name = Contact.FIND_ALL, query = "SELECT c FROM Contact c ORDER BY c.lastName ASC, c.firstName ASC"),
-    @NamedQuery(name = Contact.FIND_BY_EMAIL, query = "SELECT c FROM Contact c WHERE c.email = :email")
+    @NamedQuery(name = Contact.FIND_BY_EMAIL, query = "SELECT c FROM Contact c WHERE c.email = :email"),
+    @NamedQuery(name = Contact.FIND_ID_BY_EMAIL, query = "SELECT c.id FROM Contact c WHERE c.email = :email")
 })
 @XmlRootElement
 @Table(name = "Contact", uniqueConstraints = @UniqueConstraint(columnNames = "email"))
@@ -62,6 +63,7 @@ public class Contact implements Serializable {
 
     public static final String FIND_ALL = "Contact.findAll";
     public static final String FIND_BY_EMAIL = "Contact.findByEmail";
+    public static final String FIND_ID_BY_EMAIL = "Contact.findIdByEmail";
 
     /*
      * The messages match the ones in the UI so that the user isn't confused by two similar error messages for the same
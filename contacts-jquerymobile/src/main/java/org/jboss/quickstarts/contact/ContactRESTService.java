@@ -203,22 +203,21 @@ public class ContactRESTService {
             Response response = Response.status(Response.Status.CONFLICT).entity("The contact ID cannot be modified").build();
             throw new WebApplicationException(response);
         }
-        if (service.findById(contact.getId()) == null) {
-            // Verify if the contact exists. Return 404, if not present.
-            throw new WebApplicationException(Response.Status.NOT_FOUND);
-        }
 
         Response.ResponseBuilder builder = null;
 
         try {
             // Apply the changes the Contact.
-            service.update(contact);
-
-            // Create an OK Response and pass the contact back in case it is needed.
-            builder = Response.ok(contact);
+            if (service.update(contact) == null) {
+                // The contact does not exist. Return 404.
+                builder = Response.status(Response.Status.NOT_FOUND);
+            } else {
+                // Create an OK Response and pass the contact back in case it is needed.
+                builder = Response.ok(contact);
 
-            log.info("updateContact completed. Contact = " + contact.getFirstName() + " " + contact.getLastName() + " " + contact.getEmail() + " " + contact.getPhoneNumber() + " "
-                + contact.getBirthDate() + " " + contact.getId());
+                log.info("updateContact completed. Contact = " + contact.getFirstName() + " " + contact.getLastName() + " " + contact.getEmail() + " " + contact.getPhoneNumber() + " "
+                    + contact.getBirthDate() + " " + contact.getId());
+            }
         } catch (ConstraintViolationException ce) {
             log.info("ConstraintViolationException - " + ce.toString());
             // Handle bean validation issues
@@ -76,6 +76,21 @@ public class ContactRepository {
         return contact;
     }
 
+    /**
+     * Find the ID of the Contact that has the email that is passed in. Only the ID is selected, and no exception is thrown
+     * when there is no such Contact.
+     *
+     * @param email
+     * @return the ID, or null if no Contact has this email
+     */
+    Long findIdByEmail(String email) {
+        List<Long> ids = em.createNamedQuery(Contact.FIND_ID_BY_EMAIL, Long.class)
+            .setParameter("email", email)
+            .setMaxResults(1)
+            .getResultList();
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
     /**
      * Find just one Contact by the first name that is passed in. If there is more then one, only the first will be returned.
      *
@@ -138,15 +153,20 @@ public class ContactRepository {
      *
      * merge() however must have an object with the @Id already generated.
      *
+     * The Contact is loaded first, so that merge() finds it in the persistence context instead of loading it again.
+     *
      * @param Contact
-     * @return Contact
+     * @return Contact, or null if there is no Contact with this ID
      * @throws ConstraintViolationException, ValidationException, Exception
      */
     //    Map<String, Object> update(Contact contact) throws Exception {
     Contact update(Contact contact) throws ConstraintViolationException, ValidationException, Exception {
         log.info("ContactRepository.update() - Updating " + contact.getFirstName() + " " + contact.getLastName());
 
-        // Either update the contact or add it if it can't be found.
+        if (em.find(Contact.class, contact.getId()) == null) {
+            return null;
+        }
+        // The update is sent to the database when the transaction commits
         em.merge(contact);
 
         return contact;
@@ -177,7 +197,7 @@ public class ContactRepository {
              *
              * Therefore we merge first and then we can remove it.
              */
-            em.remove(em.merge(contact));
+                em.remove(em.merge(contact));
 
         } else {
             log.info("ContactRepository.delete() - No ID was found so can't Delete.");
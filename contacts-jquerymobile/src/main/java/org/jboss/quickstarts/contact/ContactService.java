@@ -140,7 +140,7 @@ public class ContactService {
         // Check to make sure the data fits with the parameters in the Contact model and passes validation.
         validator.validateContact(contact);
 
-        // Either update the contact or add it if it can't be found.
+        // Update the contact, null is returned if it can't be found.
         Contact updatedContact = crud.update(contact);
 
         return updatedContact;
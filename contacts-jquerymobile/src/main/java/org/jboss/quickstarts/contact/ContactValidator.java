@@ -20,7 +20,6 @@ import java.util.HashSet;
 import java.util.Set;
 
 import javax.inject.Inject;
-import javax.persistence.NoResultException;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.ValidationException;
@@ -74,31 +73,14 @@ public class ContactValidator {
      * "@UniqueConstraint(columnNames = "email")" constraint from the Contact class.
      *
      * Since Update will being using an email that is already in the database we need to make sure that it is the email
-     * from the record being updated.
+     * from the record being updated. Only the ID of the contact with the email is selected, so a single query answers both.
      *
      * @param email The email to check
      * @param id
      * @return True if the email already exists, and false otherwise
      */
     boolean emailAlreadyExists(String email, Long id) {
-        Contact contact = null;
-        Contact contactWithID = null;
-        try {
-            contact = crud.findByEmail(email);
-        } catch (NoResultException e) {
-            // ignore
-        }
-
-        if (contact != null && id != null) {
-            try {
-                contactWithID = crud.findById(id);
-                if (contactWithID != null && contactWithID.getEmail().equals(email)) {
-                    contact = null;
-                }
-            } catch (NoResultException e) {
-                // ignore
-            }
-        }
-        return contact != null;
+        Long existingId = crud.findIdByEmail(email);
+        return existingId != null && !existingId.equals(id);
     }
 }
@@ -16,21 +16,26 @@
  */
 package org.jboss.quickstarts.util;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.regex.Pattern;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletContext;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.WriteListener;
 import javax.servlet.annotation.WebFilter;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
 
@@ -43,11 +48,15 @@ import javax.servlet.http.HttpServletResponseWrapper;
  * To qualify for wrapping the request must be made to the <i>/rest/*</i> path, and contain a query parameter call
  * <i>jsoncallback</> that defines the JSONP callback method to use with the response.
  * </p>
+ * <p>
+ * The filter supports asynchronous requests, so that the JAX-RS resources and servlets behind it may suspend their
+ * responses or write them with non-blocking output.
+ * </p>
  *
  * @author balunasj
  *
  */
-@WebFilter("/rest/*")
+@WebFilter(urlPatterns = "/rest/*", asyncSupported = true)
 public class JSONPRequestFilter implements Filter {
     // The callback method to use
     private static final String CALLBACK_METHOD = "jsonpcallback";
@@ -85,50 +94,21 @@ public class JSONPRequestFilter implements Filter {
                 throw new ServletException("JSONP Callback method '" + CALLBACK_METHOD + "' parameter not valid function");
             }
 
-            // Will stream updated response
-            final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-
-            // Create a custom response wrapper to adding in the padding
-            HttpServletResponseWrapper responseWrapper = new HttpServletResponseWrapper(httpResponse) {
-
-                @Override
-                public ServletOutputStream getOutputStream() throws IOException {
-                    return new ServletOutputStream() {
-                        @Override
-                        public void write(int b) throws IOException {
-                            byteStream.write(b);
-                        }
-
-                        @Override
-                        public boolean isReady() {
-                            // The stream is always ready
-                            return true;
-                        }
-
-                        @Override
-                        public void setWriteListener(WriteListener writeListener) {
-                            // Nothing to do
-                        }
-                    };
-                }
-
-                @Override
-                public PrintWriter getWriter() throws IOException {
-                    return new PrintWriter(byteStream);
-                }
-            };
-
-            // Process the rest of the filter chain, including the JAX-RS request
-            chain.doFilter(request, responseWrapper);
-
-            // Override response content and encoding
+            // Override response content and encoding, the response wrapper ignores the ones set by JAX-RS
             response.setContentType(CONTENT_TYPE);
             response.setCharacterEncoding("UTF-8");
 
-            // Write the padded updates to the output stream.
-            response.getOutputStream().write((callback + "(").getBytes());
-            response.getOutputStream().write(byteStream.toByteArray());
-            response.getOutputStream().write(");".getBytes());
+            // Create a custom response wrapper to stream the response with the padding added
+            JSONPResponseWrapper responseWrapper = new JSONPResponseWrapper(httpResponse, callback);
+
+            // Process the rest of the filter chain, including the JAX-RS request. An asynchronous response is completed
+            // through the request wrapper's AsyncContext, which ends the padding first
+            chain.doFilter(new JSONPRequestWrapper(httpRequest, responseWrapper), responseWrapper);
+
+            if (!request.isAsyncStarted()) {
+                responseWrapper.finish(() -> {
+                });
+            }
         }
     }
 
@@ -145,4 +125,362 @@ public class JSONPRequestFilter implements Filter {
     public void destroy() {
         // Nothing to do
     }
+
+    /**
+     * Passes the response through to the wrapped response as it is written, adding the callback method before its first byte
+     * and the closing padding when it ends. Nothing is buffered, and the non-blocking output of Servlet 3.1 still works.
+     */
+    private static class JSONPResponseWrapper extends HttpServletResponseWrapper {
+
+        private final byte[] prefix;
+
+        private PaddingOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        JSONPResponseWrapper(HttpServletResponse response, String callback) {
+            super(response);
+            this.prefix = (callback + "(").getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            return paddingOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(paddingOutputStream(), StandardCharsets.UTF_8));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+
+        // The content type, encoding and length are the ones of the padded response, set by the filter
+        @Override
+        public void setContentType(String type) {
+        }
+
+        @Override
+        public void setCharacterEncoding(String charset) {
+        }
+
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!isIgnoredHeader(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!isIgnoredHeader(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            if (!isIgnoredHeader(name)) {
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            if (!isIgnoredHeader(name)) {
+                super.addIntHeader(name, value);
+            }
+        }
+
+        // Ends the padding, then runs the given task. With non-blocking output the padding may only be written, and the
+        // task run, once the output stream is ready again
+        void finish(Runnable then) throws IOException {
+            PaddingOutputStream stream = paddingOutputStream();
+            stream.whenClosed(then);
+            if (writer != null) {
+                writer.close();
+            } else {
+                stream.close();
+            }
+        }
+
+        private boolean isIgnoredHeader(String name) {
+            return "Content-Type".equalsIgnoreCase(name) || "Content-Length".equalsIgnoreCase(name);
+        }
+
+        private PaddingOutputStream paddingOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new PaddingOutputStream(getResponse().getOutputStream(), prefix);
+            }
+            return outputStream;
+        }
+    }
+
+    private static class PaddingOutputStream extends ServletOutputStream {
+
+        private static final byte[] SUFFIX = ");".getBytes(StandardCharsets.UTF_8);
+
+        private final ServletOutputStream delegate;
+
+        private final byte[] prefix;
+
+        private boolean started;
+
+        private boolean closed;
+
+        // Set when the padding is ended while a non-blocking stream is not ready, it is written on the next onWritePossible
+        private byte[] pendingSuffix;
+
+        private boolean nonBlocking;
+
+        private boolean suffixWritten;
+
+        private Runnable afterSuffix;
+
+        PaddingOutputStream(ServletOutputStream delegate, byte[] prefix) {
+            this.delegate = delegate;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (len == 0) {
+                return;
+            }
+            if (!started) {
+                // The prefix is sent with the first bytes in a single write, as a non-blocking stream only accepts one write
+                // each time it is ready
+                byte[] first = new byte[prefix.length + len];
+                System.arraycopy(prefix, 0, first, 0, prefix.length);
+                System.arraycopy(b, off, first, prefix.length, len);
+                started = true;
+                delegate.write(first);
+            } else {
+                delegate.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            byte[] suffix = SUFFIX;
+            if (!started) {
+                suffix = new byte[prefix.length + SUFFIX.length];
+                System.arraycopy(prefix, 0, suffix, 0, prefix.length);
+                System.arraycopy(SUFFIX, 0, suffix, prefix.length, SUFFIX.length);
+            }
+            if (nonBlocking && !delegate.isReady()) {
+                pendingSuffix = suffix;
+            } else {
+                writeSuffix(suffix);
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public synchronized void setWriteListener(WriteListener writeListener) {
+            nonBlocking = true;
+            delegate.setWriteListener(new WriteListener() {
+                @Override
+                public void onWritePossible() throws IOException {
+                    byte[] suffix;
+                    synchronized (PaddingOutputStream.this) {
+                        suffix = pendingSuffix;
+                        pendingSuffix = null;
+                    }
+                    if (suffix != null) {
+                        writeSuffix(suffix);
+                    } else if (!closed) {
+                        writeListener.onWritePossible();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    writeListener.onError(t);
+                }
+            });
+        }
+
+        // Runs the task once the padding has been written
+        synchronized void whenClosed(Runnable task) {
+            if (suffixWritten) {
+                task.run();
+            } else {
+                afterSuffix = task;
+            }
+        }
+
+        private synchronized void writeSuffix(byte[] suffix) throws IOException {
+            delegate.write(suffix);
+            delegate.close();
+            suffixWritten = true;
+            if (afterSuffix != null) {
+                afterSuffix.run();
+                afterSuffix = null;
+            }
+        }
+    }
+
+    /**
+     * Hands out an AsyncContext which ends the padding of the response before it completes it, as an asynchronous response
+     * may be completed without its output stream being closed.
+     */
+    private static class JSONPRequestWrapper extends HttpServletRequestWrapper {
+
+        private final JSONPResponseWrapper responseWrapper;
+
+        private AsyncContext asyncContext;
+
+        JSONPRequestWrapper(HttpServletRequest request, JSONPResponseWrapper responseWrapper) {
+            super(request);
+            this.responseWrapper = responseWrapper;
+        }
+
+        @Override
+        public synchronized AsyncContext startAsync() throws IllegalStateException {
+            asyncContext = new PaddingAsyncContext(super.startAsync(), responseWrapper);
+            return asyncContext;
+        }
+
+        @Override
+        public synchronized AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse)
+            throws IllegalStateException {
+            asyncContext = new PaddingAsyncContext(super.startAsync(servletRequest, servletResponse), responseWrapper);
+            return asyncContext;
+        }
+
+        @Override
+        public synchronized AsyncContext getAsyncContext() {
+            if (asyncContext == null) {
+                return super.getAsyncContext();
+            }
+            return asyncContext;
+        }
+    }
+
+    private static class PaddingAsyncContext implements AsyncContext {
+
+        private final AsyncContext delegate;
+
+        private final JSONPResponseWrapper responseWrapper;
+
+        PaddingAsyncContext(AsyncContext delegate, JSONPResponseWrapper responseWrapper) {
+            this.delegate = delegate;
+            this.responseWrapper = responseWrapper;
+        }
+
+        @Override
+        public void complete() {
+            try {
+                responseWrapper.finish(delegate::complete);
+            } catch (IOException e) {
+                // The client is gone, there is nothing left to write
+                delegate.complete();
+            }
+        }
+
+        @Override
+        public ServletRequest getRequest() {
+            return delegate.getRequest();
+        }
+
+        @Override
+        public ServletResponse getResponse() {
+            return delegate.getResponse();
+        }
+
+        @Override
+        public boolean hasOriginalRequestAndResponse() {
+            return delegate.hasOriginalRequestAndResponse();
+        }
+
+        @Override
+        public void dispatch() {
+            delegate.dispatch();
+        }
+
+        @Override
+        public void dispatch(String path) {
+            delegate.dispatch(path);
+        }
+
+        @Override
+        public void dispatch(ServletContext context, String path) {
+            delegate.dispatch(context, path);
+        }
+
+        @Override
+        public void start(Runnable run) {
+            delegate.start(run);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener) {
+            delegate.addListener(listener);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener, ServletRequest servletRequest, ServletResponse servletResponse) {
+            delegate.addListener(listener, servletRequest, servletResponse);
+        }
+
+        @Override
+        public <T extends AsyncListener> T createListener(Class<T> clazz) throws ServletException {
+            return delegate.createListener(clazz);
+        }
+
+        @Override
+        public void setTimeout(long timeout) {
+            delegate.setTimeout(timeout);
+        }
+
+        @Override
+        public long getTimeout() {
+            return delegate.getTimeout();
+        }
+    }
 }
@@ -18,6 +18,7 @@ package org.jboss.quickstarts.contact.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -42,6 +43,8 @@ import org.jboss.quickstarts.contact.ContactRESTService;
 import org.jboss.quickstarts.contact.ContactRepository;
 import org.jboss.quickstarts.contact.ContactService;
 import org.jboss.quickstarts.contact.ContactValidator;
+import org.jboss.quickstarts.contact.DatabaseRoundTrips;
+import org.jboss.quickstarts.contact.DatabaseRoundTripsFilter;
 import org.jboss.quickstarts.contact.JaxRsActivator;
 import org.jboss.quickstarts.util.JSONPRequestFilter;
 import org.jboss.quickstarts.util.JacksonConfig;
@@ -85,9 +88,13 @@ public class ContactRegistrationIT {
                 ContactRepository.class,
                 ContactValidator.class,
                 ContactService.class,
+                DatabaseRoundTrips.class,
+                DatabaseRoundTripsFilter.class,
                 JacksonConfig.class,
                 JSONPRequestFilter.class,
-                Resources.class)
+                Resources.class,
+                AsyncJSONResource.class,
+                NonBlockingJSONServlet.class)
             //            .addAsLibraries(libs)
             .addAsResource("META-INF/test-persistence.xml", "META-INF/persistence.xml")
             .addAsWebInfResource("arquillian-ds.xml")
@@ -214,6 +221,88 @@ public class ContactRegistrationIT {
         client.close();
     }
 
+    @Test
+    @RunAsClient
+    @InSequence(7)
+    public void shouldNotUpdateAMissingContact(@ArquillianResource URL contextPath) throws JAXBException {
+        Contact contact = createContactInstance("Joan", "Smith", "joan@mailinator.com", "2125551234", date);
+        contact.setId(99999L);
+
+        // PUTs a Contact with an non-existent ID 99999
+        Client client = ClientBuilder.newClient();
+        URI uri = UriBuilder.fromUri(contextPath + REST_ROOT).port(8080).build();
+        Response response = client.target(uri).path("99999").request().put(Entity.entity(contact, MediaType.APPLICATION_JSON));
+        assertEquals(Response.Status.NOT_FOUND, response.getStatusInfo());
+        // The email check and the lookup of the contact
+        assertEquals("2", response.getHeaderString(DatabaseRoundTripsFilter.HEADER));
+        client.close();
+    }
+
+    @Test
+    @RunAsClient
+    @InSequence(8)
+    public void shouldCountTheDatabaseRoundTrips(@ArquillianResource URL contextPath) throws JAXBException {
+        Client client = ClientBuilder.newClient();
+        URI uri = UriBuilder.fromUri(contextPath + REST_ROOT).port(8080).build();
+
+        // GETs a Contact with an non-existent ID, which is a single select
+        Response response = client.target(uri).path("00000").request().get();
+        assertEquals(Response.Status.NOT_FOUND, response.getStatusInfo());
+        assertEquals("1", response.getHeaderString(DatabaseRoundTripsFilter.HEADER));
+
+        // GETs all the Contacts, which is a single select too
+        response = client.target(uri).request().get();
+        assertEquals(Response.Status.OK, response.getStatusInfo());
+        assertEquals("1", response.getHeaderString(DatabaseRoundTripsFilter.HEADER));
+        client.close();
+    }
+
+    @Test
+    @RunAsClient
+    @InSequence(9)
+    public void shouldPadTheJSONPResponse(@ArquillianResource URL contextPath) throws JAXBException {
+        // GETs all the Contacts with a JSONP callback
+        Client client = ClientBuilder.newClient();
+        URI uri = UriBuilder.fromUri(contextPath + REST_ROOT).port(8080).build();
+        Response response = client.target(uri).queryParam("jsonpcallback", "showContacts").request().get();
+        assertEquals(Response.Status.OK, response.getStatusInfo());
+        assertTrue(MediaType.valueOf(JSONPRequestFilter.CONTENT_TYPE).isCompatible(response.getMediaType()));
+
+        String body = response.readEntity(String.class);
+        assertTrue("Unexpected body " + body, body.startsWith("showContacts(["));
+        assertTrue("Unexpected body " + body, body.endsWith("]);"));
+        assertTrue("Unexpected body " + body, body.contains("jack@mailinator.com"));
+        client.close();
+    }
+
+    @Test
+    @RunAsClient
+    @InSequence(10)
+    public void shouldPadAnAsynchronousJSONPResponse(@ArquillianResource URL contextPath) throws JAXBException {
+        // GETs a response resumed from another thread, with a JSONP callback
+        Client client = ClientBuilder.newClient();
+        URI uri = UriBuilder.fromUri(contextPath + "rest/async").port(8080).build();
+        Response response = client.target(uri).queryParam("jsonpcallback", "showAsync").request().get();
+        assertEquals(Response.Status.OK, response.getStatusInfo());
+        assertTrue(MediaType.valueOf(JSONPRequestFilter.CONTENT_TYPE).isCompatible(response.getMediaType()));
+        assertEquals("showAsync({\"async\":true});", response.readEntity(String.class));
+        client.close();
+    }
+
+    @Test
+    @RunAsClient
+    @InSequence(11)
+    public void shouldPadANonBlockingJSONPResponse(@ArquillianResource URL contextPath) throws JAXBException {
+        // GETs a response written with non-blocking output, with a JSONP callback
+        Client client = ClientBuilder.newClient();
+        URI uri = UriBuilder.fromUri(contextPath + NonBlockingJSONServlet.PATH.substring(1)).port(8080).build();
+        Response response = client.target(uri).queryParam("jsonpcallback", "showNonBlocking").request().get();
+        assertEquals(Response.Status.OK, response.getStatusInfo());
+        assertTrue(MediaType.valueOf(JSONPRequestFilter.CONTENT_TYPE).isCompatible(response.getMediaType()));
+        assertEquals("showNonBlocking({\"nonblocking\":true});", response.readEntity(String.class));
+        client.close();
+    }
+
     private Contact createContactInstance(String firstName, String lastName, String email, String phone, Date birthDate) {
         Contact contact = new Contact();
         contact.setFirstName(firstName);
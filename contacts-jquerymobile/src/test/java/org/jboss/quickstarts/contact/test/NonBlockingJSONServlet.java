@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.quickstarts.contact.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * A servlet behind the JSONP filter which writes its response with the non-blocking output of Servlet 3.1, to test the
+ * JSONP padding of such responses.
+ */
+@WebServlet(urlPatterns = NonBlockingJSONServlet.PATH, asyncSupported = true)
+public class NonBlockingJSONServlet extends HttpServlet {
+
+    public static final String PATH = "/rest/nonblocking";
+
+    private static final byte[] BODY = "{\"nonblocking\":true}".getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        final AsyncContext asyncContext = request.startAsync();
+        final ServletOutputStream output = response.getOutputStream();
+        output.setWriteListener(new WriteListener() {
+
+            private boolean written;
+
+            @Override
+            public void onWritePossible() throws IOException {
+                if (!written) {
+                    written = true;
+                    output.write(BODY);
+                }
+                if (output.isReady()) {
+                    asyncContext.complete();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                asyncContext.complete();
+            }
+        });
+    }
+}
@@ -20,10 +20,7 @@ import java.util.List;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
-
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Root;
+import javax.persistence.TypedQuery;
 
 import org.jboss.as.quickstart.hibernate.model.Member;
 
@@ -38,11 +35,8 @@ public class MemberRepository {
     }
 
     public List<Member> findAllOrderedByName() {
-        // using Hibernate Session and Criteria Query via Hibernate Native API
-        CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<Member> query = cb.createQuery(Member.class);
-        Root<Member> members = query.from(Member.class);
-        query.orderBy(cb.asc(members.get("name")));
-        return em.createQuery(query).getResultList();
+        // using a named query, parsed once when the persistence unit starts
+        TypedQuery<Member> query = em.createNamedQuery(Member.FIND_ALL, Member.class);
+        return query.getResultList();
     }
 }
@@ -21,9 +21,8 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 
-import org.hibernate.Criteria;
+import org.hibernate.Query;
 import org.hibernate.Session;
-import org.hibernate.criterion.Order;
 import org.jboss.as.quickstart.hibernate4.model.Member;
 
 @ApplicationScoped
@@ -38,11 +37,10 @@ public class MemberRepository {
 
     @SuppressWarnings("unchecked")
     public List<Member> findAllOrderedByName() {
-        // using Hibernate Session and Criteria Query via Hibernate Native API
+        // using Hibernate Session and a named query via Hibernate Native API. The query is parsed once when the session
+        // factory starts, and its results are cached if the query cache is enabled in persistence.xml
         Session session = (Session) em.getDelegate();
-        Criteria cb = session.createCriteria(Member.class);
-        cb.addOrder(Order.asc("name"));
-        return (List<Member>) cb.list();
-        // return members;
+        Query query = session.getNamedQuery(Member.FIND_ALL);
+        return (List<Member>) query.list();
     }
 }
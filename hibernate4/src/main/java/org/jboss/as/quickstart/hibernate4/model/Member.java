@@ -20,6 +20,9 @@ import java.io.Serializable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.Digits;
@@ -36,6 +39,10 @@ import org.hibernate.validator.constraints.NotEmpty;
  */
 
 @Entity
+@NamedQueries({
+    @NamedQuery(name = Member.FIND_ALL, query = "SELECT m FROM Member m ORDER BY m.name ASC",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
+})
 @XmlRootElement
 @Table(name = "MemberHibernate4Demo", uniqueConstraints = @UniqueConstraint(columnNames = "id"))
 public class Member implements Serializable {
@@ -44,6 +51,8 @@ public class Member implements Serializable {
      **/
     private static final long serialVersionUID = 1L;
 
+    public static final String FIND_ALL = "Member.findAll";
+
     @Id
     private Long id;
 
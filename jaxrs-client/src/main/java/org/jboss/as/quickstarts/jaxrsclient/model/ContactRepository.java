@@ -0,0 +1,124 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.jaxrsclient.model;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Thread safe in-memory store of {@link Contact}s.
+ * <p>
+ * Ids come from an {@link AtomicLong}, so concurrent creates never get the same id and the id of a removed contact is not
+ * handed out again. Contacts are kept in a concurrent map ordered by id, which lists them in creation order and lets the
+ * oldest one be found cheaply.
+ * </p>
+ * <p>
+ * The store is unbounded by default. Set the system property {@value #MAX_SIZE_PROPERTY} to a positive number to evict the
+ * oldest contacts once there are more than that many.
+ * </p>
+ * <p>
+ * {@link #clear()} starts over with an empty store whose ids begin at 1 again. It swaps in a new map and id sequence in one
+ * step, so a create that races with it lands either before the clear or after it, never half way.
+ * </p>
+ */
+@ApplicationScoped
+public class ContactRepository {
+
+    public static final String MAX_SIZE_PROPERTY = "jaxrs-client.contacts.max-size";
+
+    private final int maxSize;
+
+    private final AtomicReference<Store> store = new AtomicReference<>(new Store());
+
+    public ContactRepository() {
+        this(Integer.getInteger(MAX_SIZE_PROPERTY, 0));
+    }
+
+    public ContactRepository(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Stores the contact under a new id, sets that id on the contact and returns it.
+     */
+    public Contact create(Contact contact) {
+        Store current = store.get();
+        Long id = current.ids.incrementAndGet();
+        contact.setId(id);
+        current.contacts.put(id, contact);
+        if (current.size.incrementAndGet() > maxSize && maxSize > 0) {
+            evictOldest(current);
+        }
+        return contact;
+    }
+
+    public Contact get(Long id) {
+        return store.get().contacts.get(id);
+    }
+
+    public Collection<Contact> getAll() {
+        return store.get().contacts.values();
+    }
+
+    public Contact remove(Long id) {
+        Store current = store.get();
+        Contact removed = current.contacts.remove(id);
+        if (removed != null) {
+            current.size.decrementAndGet();
+        }
+        return removed;
+    }
+
+    public void clear() {
+        store.set(new Store());
+    }
+
+    public int size() {
+        return store.get().size.get();
+    }
+
+    private void evictOldest(Store current) {
+        int size;
+        while ((size = current.size.get()) > maxSize) {
+            // claim one eviction first, so that concurrent creates do not evict more than needed
+            if (current.size.compareAndSet(size, size - 1)) {
+                Map.Entry<Long, Contact> eldest = current.contacts.pollFirstEntry();
+                if (eldest == null) {
+                    current.size.incrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Store {
+
+        private final ConcurrentNavigableMap<Long, Contact> contacts = new ConcurrentSkipListMap<>();
+
+        private final AtomicLong ids = new AtomicLong();
+
+        // ConcurrentSkipListMap.size() walks the whole map, so the size is counted separately
+        private final AtomicInteger size = new AtomicInteger();
+    }
+}
@@ -17,9 +17,8 @@
 package org.jboss.as.quickstarts.jaxrsclient.rest;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
+import javax.inject.Inject;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -31,11 +30,13 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import org.jboss.as.quickstarts.jaxrsclient.model.Contact;
+import org.jboss.as.quickstarts.jaxrsclient.model.ContactRepository;
 
 @Path("/contacts")
 public class ContactResourceRESTService {
 
-    private static Map<Long, Contact> contactsRepository = new HashMap<>();
+    @Inject
+    private ContactRepository contactsRepository;
 
     /**
      * Creates a new contact from the values provided and will return a JAX-RS response with either 200 ok, or 400 (BAD REQUEST)
@@ -47,11 +48,9 @@ public class ContactResourceRESTService {
     public Response createContact(Contact contact) {
 
         Response.ResponseBuilder builder = null;
-        Long nextId = contactsRepository.keySet().size() + 1L;
         try {
             // Store the contact
-            contact.setId(nextId);
-            contactsRepository.put(nextId, contact);
+            contactsRepository.create(contact);
 
             // Create an "ok" response with the persisted contact
             builder = Response.ok(contact);
@@ -82,7 +81,7 @@ public class ContactResourceRESTService {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     public Response getAll() {
-        Collection<Contact> allcontacts = contactsRepository.values();
+        Collection<Contact> allcontacts = contactsRepository.getAll();
         return Response.ok(allcontacts).build();
     }
 
@@ -0,0 +1,184 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.jaxrsclient.test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.as.quickstarts.jaxrsclient.model.Contact;
+import org.jboss.as.quickstarts.jaxrsclient.rest.JaxRsActivator;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Creates and deletes contacts from many threads at once, to show that the contacts service can stand in for a real REST
+ * backend under load.
+ */
+@RunWith(Arquillian.class)
+@RunAsClient
+public class ContactsStressIT {
+
+    private static final int THREADS = 16;
+    private static final int CONTACTS_PER_THREAD = 50;
+
+    private Logger log = Logger.getLogger(ContactsStressIT.class.getName());
+
+    @ArquillianResource
+    private URL deploymentUrl;
+
+    @Deployment(testable = false)
+    public static WebArchive createDeployment() {
+        WebArchive war = ShrinkWrap.create(WebArchive.class, "jaxrs-client-stress.war")
+                .addPackage(JaxRsActivator.class.getPackage())
+                .addPackage(Contact.class.getPackage())
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+        return war;
+    }
+
+    private String getRequestUrl() {
+        return new StringBuilder(deploymentUrl.toString())
+                .append("rest/contacts")
+                .toString();
+    }
+
+    @Test
+    public void concurrentCreatesAndDeletesTest() throws Exception {
+        log.info("### Stress tests ###");
+
+        // 1 - drop all contacts
+        log.info("dropping all contacts");
+        Response response = ClientBuilder.newClient().target(getRequestUrl()).request().delete();
+        Assert.assertEquals("All contacts should be dropped", Response.ok().build().getStatus(), response.getStatus());
+
+        // 2 - create contacts from many threads at once
+        log.info("creating " + THREADS * CONTACTS_PER_THREAD + " contacts from " + THREADS + " threads");
+        List<List<Long>> idsPerThread = runConcurrently(new Task<List<Long>>() {
+            @Override
+            public List<Long> run(Client client, int thread) {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < CONTACTS_PER_THREAD; i++) {
+                    Contact c = new Contact();
+                    c.setName("Contact " + thread + "-" + i);
+                    c.setPhoneNumber("+55-61-5555-1234");
+                    ids.add(client.target(getRequestUrl()).request()
+                            .post(Entity.entity(c, MediaType.APPLICATION_JSON), Contact.class).getId());
+                }
+                return ids;
+            }
+        });
+
+        Set<Long> ids = new HashSet<>();
+        for (List<Long> threadIds : idsPerThread) {
+            ids.addAll(threadIds);
+        }
+        Assert.assertEquals("Every contact should get its own id", THREADS * CONTACTS_PER_THREAD, ids.size());
+        Assert.assertEquals("Every contact should be stored", ids.size(), getAll().size());
+
+        // 3 - every thread deletes the contacts it created and creates one more
+        log.info("deleting and creating contacts from " + THREADS + " threads");
+        final List<List<Long>> toDelete = idsPerThread;
+        List<Long> recreatedIds = runConcurrently(new Task<Long>() {
+            @Override
+            public Long run(Client client, int thread) {
+                for (Long id : toDelete.get(thread)) {
+                    client.target(getRequestUrl()).path("/{contactId}").resolveTemplate("contactId", id).request().delete()
+                            .close();
+                }
+                Contact c = new Contact();
+                c.setName("Contact " + thread);
+                return client.target(getRequestUrl()).request()
+                        .post(Entity.entity(c, MediaType.APPLICATION_JSON), Contact.class).getId();
+            }
+        });
+
+        // 4 - only the new contacts are left, and none of them reuses a deleted id
+        List<Contact> allContacts = getAll();
+        Assert.assertEquals("Only the contacts created after the deletes should be left", THREADS, allContacts.size());
+        for (Long id : recreatedIds) {
+            Assert.assertFalse("Ids of deleted contacts should not be reused", ids.contains(id));
+        }
+        Assert.assertEquals("Every new contact should get its own id", THREADS, new HashSet<>(recreatedIds).size());
+    }
+
+    private List<Contact> getAll() {
+        return ClientBuilder.newClient().target(getRequestUrl()).request().get(new GenericType<List<Contact>>() {
+        });
+    }
+
+    /**
+     * Runs the task on every thread at the same moment. Each thread gets its own client, because a client is not meant to be
+     * shared by concurrent requests.
+     */
+    private <T> List<T> runConcurrently(final Task<T> task) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                final int thread = i;
+                futures.add(executor.submit(new Callable<T>() {
+                    @Override
+                    public T call() throws Exception {
+                        Client client = ClientBuilder.newClient();
+                        try {
+                            start.await();
+                            return task.run(client, thread);
+                        } finally {
+                            client.close();
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Task<T> {
+        T run(Client client, int thread);
+    }
+}
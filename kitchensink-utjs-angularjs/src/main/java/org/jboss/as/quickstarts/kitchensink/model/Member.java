@@ -22,6 +22,9 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.Digits;
@@ -35,10 +38,20 @@ import javax.validation.constraints.NotEmpty;
 
 @SuppressWarnings("serial")
 @Entity
+@NamedQueries({
+    @NamedQuery(name = Member.FIND_ALL, query = "SELECT m FROM Member m ORDER BY m.name ASC",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
+    @NamedQuery(name = Member.FIND_BY_EMAIL, query = "SELECT m FROM Member m WHERE m.email = :email",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
+})
 @XmlRootElement
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = "email"))
 public class Member implements Serializable {
 
+    public static final String FIND_ALL = "Member.findAll";
+
+    public static final String FIND_BY_EMAIL = "Member.findByEmail";
+
     @Id
     @GeneratedValue
     private Long id;
@@ -0,0 +1,200 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.data;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.jboss.as.quickstarts.kitchensink.util.BloomFilter;
+
+/**
+ * Answers "is this email already registered?" without a database query in the common cases.
+ * <p/>
+ * A Bloom filter seeded with all the registered emails rules out new emails, and a small LRU cache remembers emails
+ * recently confirmed to exist. Only the remaining cases (Bloom filter hits not in the cache) query the database. The index
+ * is local to this application instance, so the unique constraint on the email column remains the final authority.
+ * <p/>
+ * When more emails are registered than the filter was sized for, a bigger filter is built in the background while the
+ * current one keeps answering. The most recently registered emails are added to the new filter once it is swapped in, as
+ * their registrations may not have been committed when the database was read.
+ */
+@ApplicationScoped
+public class MemberEmailIndex {
+
+    private static final int MIN_EXPECTED_MEMBERS = 100000;
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    static final int SEED_PAGE_SIZE = 1000;
+
+    private static final int CACHE_SIZE = 1000;
+
+    // How many of the latest registered emails are kept to be added to a rebuilt filter
+    static final int RECENT_EMAILS = 10000;
+
+    @Inject
+    private Logger log;
+
+    @Inject
+    private MemberRepository repository;
+
+    @Resource(lookup = "java:comp/DefaultManagedExecutorService")
+    private Executor executor;
+
+    private final Object seedLock = new Object();
+
+    private volatile BloomFilter filter;
+
+    private volatile long capacity;
+
+    private final AtomicLong size = new AtomicLong();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final Queue<String> recentEmails = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger recentEmailCount = new AtomicInteger();
+
+    private final AtomicLong databaseQueries = new AtomicLong();
+
+    private final Map<String, Boolean> existingEmails = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public MemberEmailIndex() {
+    }
+
+    MemberEmailIndex(MemberRepository repository, Executor executor, Logger log) {
+        this.repository = repository;
+        this.executor = executor;
+        this.log = log;
+    }
+
+    public boolean emailExists(String email) {
+        synchronized (existingEmails) {
+            if (existingEmails.containsKey(email)) {
+                return true;
+            }
+        }
+        if (!filter().mightContain(email)) {
+            return false;
+        }
+        databaseQueries.incrementAndGet();
+        boolean exists = repository.emailExists(email);
+        if (exists) {
+            synchronized (existingEmails) {
+                existingEmails.put(email, Boolean.TRUE);
+            }
+        }
+        return exists;
+    }
+
+    /**
+     * Records a newly registered email. Only the Bloom filter is updated, as the registration may still be rolled back.
+     */
+    public void add(String email) {
+        // remembered before the filter is updated, so a rebuild that swaps the filter in between still sees the email
+        recentEmails.add(email);
+        if (recentEmailCount.incrementAndGet() > RECENT_EMAILS && recentEmails.poll() != null) {
+            recentEmailCount.decrementAndGet();
+        }
+        filter().add(email);
+        if (size.incrementAndGet() > capacity && rebuilding.compareAndSet(false, true)) {
+            // Too many emails for the filter to keep its false positive probability, build a bigger one
+            executor.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Returns the number of checks that had to query the database since the application started.
+     */
+    public long getDatabaseQueries() {
+        return databaseQueries.get();
+    }
+
+    private BloomFilter filter() {
+        BloomFilter current = filter;
+        if (current == null) {
+            synchronized (seedLock) {
+                current = filter;
+                if (current == null) {
+                    current = seed();
+                    filter = current;
+                    addRecentEmails(current);
+                }
+            }
+        }
+        return current;
+    }
+
+    private void rebuild() {
+        try {
+            BloomFilter rebuilt = seed();
+            filter = rebuilt;
+            addRecentEmails(rebuilt);
+        } catch (RuntimeException e) {
+            log.log(Level.WARNING, "Failed to rebuild the email index, the current one stays in use", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void addRecentEmails(BloomFilter seeded) {
+        for (String email : recentEmails) {
+            seeded.add(email);
+        }
+    }
+
+    private BloomFilter seed() {
+        long count = repository.countMembers();
+        long seededCapacity = Math.max(count * 2, MIN_EXPECTED_MEMBERS);
+        BloomFilter seeded = new BloomFilter(seededCapacity, FALSE_POSITIVE_PROBABILITY);
+        long added = 0;
+        Long lastId = null;
+        List<MemberRepository.IdAndEmail> page;
+        do {
+            page = repository.findEmailsAfter(lastId, SEED_PAGE_SIZE);
+            for (MemberRepository.IdAndEmail member : page) {
+                seeded.add(member.getEmail());
+                lastId = member.getId();
+            }
+            added += page.size();
+        } while (page.size() == SEED_PAGE_SIZE);
+        capacity = seededCapacity;
+        size.set(added);
+        log.info("Seeded the email index with " + added + " emails");
+        return seeded;
+    }
+}
@@ -21,18 +21,26 @@ import javax.enterprise.context.RequestScoped;
 import javax.enterprise.event.Observes;
 import javax.enterprise.event.Reception;
 import javax.enterprise.inject.Produces;
+import javax.faces.context.FacesContext;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.util.List;
+import java.util.Map;
 
 import org.jboss.as.quickstarts.kitchensink.model.Member;
 
 @RequestScoped
+@Named
 public class MemberListProducer {
 
+    private static final int PAGE_SIZE = 100;
+
     @Inject
     private MemberRepository memberRepository;
 
+    @Inject
+    private FacesContext facesContext;
+
     private List<Member> members;
 
     // @Named provides access the return value via the EL variable name "members" in the UI (e.g.
@@ -43,12 +51,41 @@ public class MemberListProducer {
         return members;
     }
 
+    // The page after the current one starts after its last member, there is no next page if this one isn't full
+    public boolean isNextPageAvailable() {
+        return members.size() == PAGE_SIZE;
+    }
+
+    public Member getLastMember() {
+        return members.isEmpty() ? null : members.get(members.size() - 1);
+    }
+
     public void onMemberListChanged(@Observes(notifyObserver = Reception.IF_EXISTS) final Member member) {
         retrieveAllMembersOrderedByName();
     }
 
+    // Only a page of members is shown, starting after the member given by the afterName and afterId request parameters.
+    // The first page is shown if any of them is missing or malformed
     @PostConstruct
     public void retrieveAllMembersOrderedByName() {
-        members = memberRepository.findAllOrderedByName();
+        Map<String, String> parameters = facesContext.getExternalContext().getRequestParameterMap();
+        String afterName = parameters.get("afterName");
+        Long afterId = parseId(parameters.get("afterId"));
+        if (afterName != null && afterId != null) {
+            members = memberRepository.findPageOrderedByName(afterName, afterId, PAGE_SIZE);
+        } else {
+            members = memberRepository.findPageOrderedByName(null, null, PAGE_SIZE);
+        }
+    }
+
+    static Long parseId(String id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
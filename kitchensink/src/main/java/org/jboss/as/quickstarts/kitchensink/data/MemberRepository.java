@@ -19,9 +19,12 @@ package org.jboss.as.quickstarts.kitchensink.data;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.jboss.as.quickstarts.kitchensink.model.Member;
@@ -37,24 +40,102 @@ public class MemberRepository {
     }
 
     public Member findByEmail(String email) {
+        TypedQuery<Member> query = em.createNamedQuery(Member.FIND_BY_EMAIL, Member.class).setParameter("email", email);
+        return query.getSingleResult();
+    }
+
+    /**
+     * Checks if a member is registered with the given email. Unlike {@link #findByEmail(String)} only the id is selected
+     * and no exception is thrown when there is no such member.
+     */
+    public boolean emailExists(String email) {
+        TypedQuery<Long> query = em.createNamedQuery(Member.FIND_ID_BY_EMAIL, Long.class).setParameter("email", email);
+        return !query.setMaxResults(1).getResultList().isEmpty();
+    }
+
+    /**
+     * Finds which of the given emails are already registered, with a single query.
+     */
+    public List<String> findRegisteredEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Collections.emptyList();
+        }
+        TypedQuery<String> query = em.createNamedQuery(Member.FIND_EMAILS_IN, String.class).setParameter("emails", emails);
+        return query.getResultList();
+    }
+
+    /**
+     * Finds the ids and emails of the members with an id greater than the given one, ordered by id. Pages are found using
+     * the last id of the previous page, so reading all the emails costs the same for every page. Only used to seed
+     * {@link MemberEmailIndex}, so the criteria query is built on each call.
+     *
+     * @param afterId the id of the last member of the previous page, or null for the first page
+     * @param maxResults the page size
+     */
+    public List<IdAndEmail> findEmailsAfter(Long afterId, int maxResults) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<Member> criteria = cb.createQuery(Member.class);
+        CriteriaQuery<IdAndEmail> criteria = cb.createQuery(IdAndEmail.class);
         Root<Member> member = criteria.from(Member.class);
-        // Swap criteria statements if you would like to try out type-safe criteria queries, a new
-        // feature in JPA 2.0
-        // criteria.select(member).where(cb.equal(member.get(Member_.email), email));
-        criteria.select(member).where(cb.equal(member.get("email"), email));
+        criteria.select(cb.construct(IdAndEmail.class, member.<Long> get("id"), member.<String> get("email")))
+            .orderBy(cb.asc(member.get("id")));
+        if (afterId != null) {
+            criteria.where(cb.greaterThan(member.<Long> get("id"), afterId));
+        }
+        return em.createQuery(criteria).setMaxResults(maxResults).getResultList();
+    }
+
+    public long countMembers() {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = cb.createQuery(Long.class);
+        criteria.select(cb.count(criteria.from(Member.class)));
         return em.createQuery(criteria).getSingleResult();
     }
 
     public List<Member> findAllOrderedByName() {
-        CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<Member> criteria = cb.createQuery(Member.class);
-        Root<Member> member = criteria.from(Member.class);
-        // Swap criteria statements if you would like to try out type-safe criteria queries, a new
-        // feature in JPA 2.0
-        // criteria.select(member).orderBy(cb.asc(member.get(Member_.name)));
-        criteria.select(member).orderBy(cb.asc(member.get("name")));
-        return em.createQuery(criteria).getResultList();
+        TypedQuery<Member> query = em.createNamedQuery(Member.FIND_ALL, Member.class);
+        return query.getResultList();
+    }
+
+    /**
+     * Finds a page of members ordered by name, and by id for members with the same name. Pages are found using the last
+     * member of the previous page as a cursor (keyset pagination), so the cost of a page does not depend on how far it is
+     * from the first one.
+     *
+     * @param afterName the name of the last member of the previous page, or null for the first page
+     * @param afterId the id of the last member of the previous page, ignored for the first page
+     * @param maxResults the page size
+     */
+    public List<Member> findPageOrderedByName(String afterName, Long afterId, int maxResults) {
+        TypedQuery<Member> query;
+        if (afterName == null) {
+            query = em.createNamedQuery(Member.FIND_FIRST_PAGE, Member.class);
+        } else {
+            query = em.createNamedQuery(Member.FIND_PAGE_AFTER, Member.class).setParameter("name", afterName)
+                .setParameter("id", afterId);
+        }
+        return query.setMaxResults(maxResults).getResultList();
+    }
+
+    /**
+     * The id and email of a member, as read by {@link #findEmailsAfter(Long, int)}.
+     */
+    public static class IdAndEmail {
+
+        private final Long id;
+
+        private final String email;
+
+        public IdAndEmail(Long id, String email) {
+            this.id = id;
+            this.email = email;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getEmail() {
+            return email;
+        }
     }
 }
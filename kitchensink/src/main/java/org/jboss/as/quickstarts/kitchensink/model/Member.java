@@ -22,6 +22,10 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.Digits;
@@ -33,12 +37,43 @@ import javax.xml.bind.annotation.XmlRootElement;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotEmpty;
 
+/*
+ * The @NamedQueries are parsed and validated once, when the persistence unit starts, instead of building a criteria tree on
+ * every call. They are marked cacheable, which only takes effect if the query cache is enabled in persistence.xml. The query
+ * cache only holds the ids of the members found, so Member itself must then be cached too, see persistence.xml.
+ */
 @SuppressWarnings("serial")
 @Entity
+@NamedQueries({
+    @NamedQuery(name = Member.FIND_ALL, query = "SELECT m FROM Member m ORDER BY m.name ASC",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
+    @NamedQuery(name = Member.FIND_BY_EMAIL, query = "SELECT m FROM Member m WHERE m.email = :email",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
+    @NamedQuery(name = Member.FIND_ID_BY_EMAIL, query = "SELECT m.id FROM Member m WHERE m.email = :email",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
+    @NamedQuery(name = Member.FIND_FIRST_PAGE, query = "SELECT m FROM Member m ORDER BY m.name ASC, m.id ASC",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
+    @NamedQuery(name = Member.FIND_PAGE_AFTER, query = "SELECT m FROM Member m"
+        + " WHERE m.name > :name OR (m.name = :name AND m.id > :id) ORDER BY m.name ASC, m.id ASC",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
+    @NamedQuery(name = Member.FIND_EMAILS_IN, query = "SELECT m.email FROM Member m WHERE m.email IN :emails")
+})
 @XmlRootElement
-@Table(uniqueConstraints = @UniqueConstraint(columnNames = "email"))
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = "email"), indexes = @Index(columnList = "name, id"))
 public class Member implements Serializable {
 
+    public static final String FIND_ALL = "Member.findAll";
+
+    public static final String FIND_BY_EMAIL = "Member.findByEmail";
+
+    public static final String FIND_ID_BY_EMAIL = "Member.findIdByEmail";
+
+    public static final String FIND_FIRST_PAGE = "Member.findFirstPage";
+
+    public static final String FIND_PAGE_AFTER = "Member.findPageAfter";
+
+    public static final String FIND_EMAILS_IN = "Member.findEmailsIn";
+
     @Id
     @GeneratedValue
     private Long id;
@@ -16,30 +16,54 @@
  */
 package org.jboss.as.quickstarts.kitchensink.rest;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
-import javax.persistence.NoResultException;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonParser;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.ValidationException;
 import javax.validation.Validator;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
 
+import org.jboss.as.quickstarts.kitchensink.data.MemberEmailIndex;
 import org.jboss.as.quickstarts.kitchensink.data.MemberRepository;
 import org.jboss.as.quickstarts.kitchensink.model.Member;
 import org.jboss.as.quickstarts.kitchensink.service.MemberRegistration;
@@ -53,6 +77,15 @@ import org.jboss.as.quickstarts.kitchensink.service.MemberRegistration;
 @RequestScoped
 public class MemberResourceRESTService {
 
+    private static final int STREAMING_PAGE_SIZE = 500;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_BULK_CHUNK_SIZE = 5000;
+
+    // Members validated by each task of a bulk registration
+    private static final int VALIDATION_SLICE_SIZE = 100;
+
     @Inject
     private Logger log;
 
@@ -62,13 +95,69 @@ public class MemberResourceRESTService {
     @Inject
     private MemberRepository repository;
 
+    @Inject
+    private MemberEmailIndex memberEmailIndex;
+
     @Inject
     MemberRegistration registration;
 
+    @Resource
+    private ManagedExecutorService executor;
+
+    /**
+     * Streams all members, ordered by name. The members are read one page at a time and written as soon as they are read,
+     * so the memory used does not depend on the number of members.
+     */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Member> listAllMembers() {
-        return repository.findAllOrderedByName();
+    public StreamingOutput listAllMembers() {
+        return output -> {
+            try (JsonGenerator generator = Json.createGenerator(output)) {
+                generator.writeStartArray();
+                List<Member> page = repository.findPageOrderedByName(null, null, STREAMING_PAGE_SIZE);
+                while (!page.isEmpty()) {
+                    for (Member member : page) {
+                        generator.writeStartObject()
+                            .write("id", member.getId())
+                            .write("name", member.getName())
+                            .write("email", member.getEmail())
+                            .write("phoneNumber", member.getPhoneNumber())
+                            .writeEnd();
+                    }
+                    generator.flush();
+                    if (page.size() < STREAMING_PAGE_SIZE) {
+                        break;
+                    }
+                    Member last = page.get(page.size() - 1);
+                    page = repository.findPageOrderedByName(last.getName(), last.getId(), STREAMING_PAGE_SIZE);
+                }
+                generator.writeEnd();
+            }
+        };
+    }
+
+    /**
+     * Lists a page of members, ordered by name. The next page starts after the last member of this one, and its URL is
+     * provided in a "next" Link header when this page is full.
+     */
+    @GET
+    @Path("/page")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response listMembersPage(@QueryParam("afterName") String afterName, @QueryParam("afterId") Long afterId,
+        @QueryParam("limit") @DefaultValue("100") int limit, @Context UriInfo uriInfo) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE || (afterName != null && afterId == null)) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        List<Member> page = repository.findPageOrderedByName(afterName, afterId, limit);
+        Response.ResponseBuilder builder = Response.ok(page);
+        if (page.size() == limit) {
+            Member last = page.get(page.size() - 1);
+            builder.link(uriInfo.getRequestUriBuilder()
+                .replaceQueryParam("afterName", last.getName())
+                .replaceQueryParam("afterId", last.getId())
+                .build(), "next");
+        }
+        return builder.build();
     }
 
     @GET
@@ -119,6 +208,185 @@ public class MemberResourceRESTService {
         return builder.build();
     }
 
+    /**
+     * Registers many members with one request. The body is either a JSON array of members or NDJSON (one member per line).
+     * The members are handled in chunks: a chunk is validated in parallel, the uniqueness of its emails is checked with a
+     * single query, and its valid members are inserted in one transaction. The response has one result per member, in the
+     * order they were sent, with a status of "created", "invalid", "conflict" or "error".
+     */
+    @POST
+    @Path("/bulk")
+    @Consumes({ MediaType.APPLICATION_JSON, "application/x-ndjson" })
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response createMembers(InputStream body, @QueryParam("chunkSize") @DefaultValue("500") int chunkSize)
+        throws IOException {
+        if (chunkSize < 1 || chunkSize > MAX_BULK_CHUNK_SIZE) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        JsonArrayBuilder results = Json.createArrayBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        // A JSON array starts with '[', anything else is read as NDJSON
+        reader.mark(1);
+        int first = reader.read();
+        while (first != -1 && Character.isWhitespace(first)) {
+            reader.mark(1);
+            first = reader.read();
+        }
+        if (first == -1) {
+            return Response.ok(results.build()).build();
+        }
+        reader.reset();
+        // Each item is either the JSON value sent or, for a malformed NDJSON line, the parsing error message
+        List<Object> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        try {
+            if (first == '[') {
+                try (JsonParser parser = Json.createParser(reader)) {
+                    parser.next();
+                    while (parser.hasNext() && parser.next() != JsonParser.Event.END_ARRAY) {
+                        chunk.add(parser.getValue());
+                        if (chunk.size() == chunkSize) {
+                            index = createChunk(chunk, index, results);
+                        }
+                    }
+                }
+            } else {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    try (JsonReader lineReader = Json.createReader(new StringReader(line))) {
+                        chunk.add(lineReader.readValue());
+                    } catch (JsonException e) {
+                        // Keep going, only this line is reported as an error
+                        chunk.add("Malformed JSON: " + e.getMessage());
+                    }
+                    if (chunk.size() == chunkSize) {
+                        index = createChunk(chunk, index, results);
+                    }
+                }
+            }
+        } catch (JsonException e) {
+            // Malformed JSON array, the members read so far are still registered and their results returned
+            createChunk(chunk, index, results);
+            JsonObject responseObj = Json.createObjectBuilder()
+                .add("error", String.valueOf(e.getMessage()))
+                .add("results", results)
+                .build();
+            return Response.status(Response.Status.BAD_REQUEST).entity(responseObj).build();
+        }
+        createChunk(chunk, index, results);
+        return Response.ok(results.build()).build();
+    }
+
+    /**
+     * Registers a chunk of a bulk registration and clears it, adding the result for each member. Returns the index of the
+     * first member of the next chunk.
+     */
+    private int createChunk(List<Object> chunk, int firstIndex, JsonArrayBuilder results) {
+        int size = chunk.size();
+        Member[] members = new Member[size];
+        JsonObject[] itemResults = new JsonObject[size];
+        for (int i = 0; i < size; i++) {
+            Object item = chunk.get(i);
+            if (item instanceof JsonObject) {
+                members[i] = toMember((JsonObject) item);
+            } else if (item instanceof String) {
+                itemResults[i] = bulkResult(firstIndex + i, "error").add("error", (String) item).build();
+            } else {
+                itemResults[i] = bulkResult(firstIndex + i, "error").add("error", "Not a JSON object").build();
+            }
+        }
+        chunk.clear();
+
+        // Bean validation of the chunk, split into slices run in parallel
+        List<Future<?>> validations = new ArrayList<>();
+        for (int from = 0; from < size; from += VALIDATION_SLICE_SIZE) {
+            int start = from;
+            int end = Math.min(from + VALIDATION_SLICE_SIZE, size);
+            validations.add(executor.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    if (members[i] == null) {
+                        continue;
+                    }
+                    Set<ConstraintViolation<Member>> violations = validator.validate(members[i]);
+                    if (!violations.isEmpty()) {
+                        JsonObjectBuilder errors = Json.createObjectBuilder();
+                        for (ConstraintViolation<?> violation : violations) {
+                            errors.add(violation.getPropertyPath().toString(), violation.getMessage());
+                        }
+                        itemResults[i] = bulkResult(firstIndex + i, "invalid").add("errors", errors).build();
+                        members[i] = null;
+                    }
+                }
+            }));
+        }
+        for (Future<?> validation : validations) {
+            try {
+                validation.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebApplicationException(e, Response.Status.SERVICE_UNAVAILABLE);
+            } catch (ExecutionException e) {
+                throw new WebApplicationException(e.getCause());
+            }
+        }
+
+        // Email uniqueness, against the database and within the chunk
+        Set<String> emails = new HashSet<>();
+        for (Member member : members) {
+            if (member != null) {
+                emails.add(member.getEmail());
+            }
+        }
+        Set<String> takenEmails = new HashSet<>(repository.findRegisteredEmails(emails));
+        List<Member> newMembers = new ArrayList<>();
+        List<Integer> newIndexes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (members[i] == null) {
+                continue;
+            }
+            if (!takenEmails.add(members[i].getEmail())) {
+                itemResults[i] = bulkResult(firstIndex + i, "conflict").add("email", "Email taken").build();
+            } else {
+                newMembers.add(members[i]);
+                newIndexes.add(i);
+            }
+        }
+
+        try {
+            registration.registerAll(newMembers);
+            for (int i = 0; i < newMembers.size(); i++) {
+                int item = newIndexes.get(i);
+                itemResults[item] = bulkResult(firstIndex + item, "created").add("id", newMembers.get(i).getId()).build();
+            }
+        } catch (Exception e) {
+            // The whole chunk was rolled back
+            log.warning("Bulk registration of " + newMembers.size() + " members failed: " + e.getMessage());
+            for (int item : newIndexes) {
+                itemResults[item] = bulkResult(firstIndex + item, "error").add("error", String.valueOf(e.getMessage())).build();
+            }
+        }
+
+        for (JsonObject itemResult : itemResults) {
+            results.add(itemResult);
+        }
+        return firstIndex + size;
+    }
+
+    private static Member toMember(JsonObject object) {
+        Member member = new Member();
+        member.setName(object.getString("name", null));
+        member.setEmail(object.getString("email", null));
+        member.setPhoneNumber(object.getString("phoneNumber", null));
+        return member;
+    }
+
+    private static JsonObjectBuilder bulkResult(int index, String status) {
+        return Json.createObjectBuilder().add("index", index).add("status", status);
+    }
+
     /**
      * <p>
      * Validates the given Member variable and throws validation exceptions based on the type of error. If the error is standard
@@ -174,12 +442,6 @@ public class MemberResourceRESTService {
      * @return True if the email already exists, and false otherwise
      */
     public boolean emailAlreadyExists(String email) {
-        Member member = null;
-        try {
-            member = repository.findByEmail(email);
-        } catch (NoResultException e) {
-            // ignore
-        }
-        return member != null;
+        return memberEmailIndex.emailExists(email);
     }
 }
@@ -16,18 +16,23 @@
  */
 package org.jboss.as.quickstarts.kitchensink.service;
 
+import org.jboss.as.quickstarts.kitchensink.data.MemberEmailIndex;
 import org.jboss.as.quickstarts.kitchensink.model.Member;
 
 import javax.ejb.Stateless;
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import java.util.List;
 import java.util.logging.Logger;
 
 // The @Stateless annotation eliminates the need for manual transaction demarcation
 @Stateless
 public class MemberRegistration {
 
+    // Matches hibernate.jdbc.batch_size in persistence.xml
+    private static final int JDBC_BATCH_SIZE = 50;
+
     @Inject
     private Logger log;
 
@@ -37,9 +42,37 @@ public class MemberRegistration {
     @Inject
     private Event<Member> memberEventSrc;
 
+    @Inject
+    private MemberEmailIndex memberEmailIndex;
+
     public void register(Member member) throws Exception {
         log.info("Registering " + member.getName());
         em.persist(member);
+        memberEmailIndex.add(member.getEmail());
         memberEventSrc.fire(member);
     }
+
+    /**
+     * Registers all the members in a single transaction. The inserts are sent to the database in JDBC batches, and a single
+     * event is fired for the whole list, as observers such as MemberListProducer reload their current page of members on
+     * any event, whichever member it carries.
+     */
+    public void registerAll(List<Member> members) throws Exception {
+        if (members.isEmpty()) {
+            return;
+        }
+        log.info("Registering " + members.size() + " members");
+        for (int i = 0; i < members.size(); i++) {
+            em.persist(members.get(i));
+            if ((i + 1) % JDBC_BATCH_SIZE == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        for (Member member : members) {
+            memberEmailIndex.add(member.getEmail());
+        }
+        memberEventSrc.fire(members.get(members.size() - 1));
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MemberEmailIndexTest {
+
+    private FakeMemberRepository repository;
+
+    private List<Runnable> rebuilds;
+
+    private MemberEmailIndex index;
+
+    @Before
+    public void setUp() {
+        repository = new FakeMemberRepository();
+        rebuilds = new ArrayList<>();
+        index = new MemberEmailIndex(repository, rebuilds::add, Logger.getLogger(MemberEmailIndexTest.class.getName()));
+    }
+
+    @Test
+    public void testUnknownEmailIsRuledOutWithoutQuery() {
+        repository.register(3);
+
+        assertFalse(index.emailExists("someone.else@mailinator.com"));
+        assertEquals(0, index.getDatabaseQueries());
+    }
+
+    @Test
+    public void testRegisteredEmailIsConfirmedOnceThenCached() {
+        repository.register(3);
+
+        assertTrue(index.emailExists(email(2)));
+        assertTrue(index.emailExists(email(2)));
+        assertEquals(1, index.getDatabaseQueries());
+    }
+
+    @Test
+    public void testSeedReadsAllPagesByKeyset() {
+        repository.register(2 * MemberEmailIndex.SEED_PAGE_SIZE + 500);
+
+        assertTrue(index.emailExists(email(2 * MemberEmailIndex.SEED_PAGE_SIZE + 499)));
+        List<Long> expected = new ArrayList<>();
+        expected.add(null);
+        expected.add((long) MemberEmailIndex.SEED_PAGE_SIZE - 1);
+        expected.add((long) 2 * MemberEmailIndex.SEED_PAGE_SIZE - 1);
+        assertEquals(expected, repository.pagesAfter);
+    }
+
+    @Test
+    public void testAddedEmailIsNoLongerRuledOut() {
+        index.emailExists("warm.up@mailinator.com");
+        repository.uncommitted.add("new.member@mailinator.com");
+
+        index.add("new.member@mailinator.com");
+
+        assertTrue(index.emailExists("new.member@mailinator.com"));
+    }
+
+    @Test
+    public void testOverflowRebuildsInTheBackgroundWithoutLosingRecentEmails() {
+        index.emailExists("warm.up@mailinator.com");
+        int added = 0;
+        while (rebuilds.isEmpty()) {
+            String email = email(added++);
+            repository.addCommitted(email);
+            index.add(email);
+        }
+        assertEquals(1, rebuilds.size());
+        int seeded = repository.emails.size();
+
+        // registered while the rebuild has not run yet, and not committed when it reads the database
+        repository.uncommitted.add("late.member@mailinator.com");
+        index.add("late.member@mailinator.com");
+        assertEquals("only one rebuild at a time", 1, rebuilds.size());
+        // the current filter keeps answering until the new one is ready
+        assertTrue(index.emailExists(email(0)));
+
+        repository.pagesAfter.clear();
+        rebuilds.get(0).run();
+
+        assertEquals(seeded / MemberEmailIndex.SEED_PAGE_SIZE + 1, repository.pagesAfter.size());
+        long queries = index.getDatabaseQueries();
+        assertTrue(index.emailExists("late.member@mailinator.com"));
+        assertEquals("the rebuilt filter contains the uncommitted email", queries + 1, index.getDatabaseQueries());
+        assertFalse(index.emailExists("someone.else@mailinator.com"));
+    }
+
+    private static String email(int i) {
+        return "member" + i + "@mailinator.com";
+    }
+
+    private static class FakeMemberRepository extends MemberRepository {
+
+        private final List<String> emails = new ArrayList<>();
+
+        private final Set<String> uncommitted = ConcurrentHashMap.newKeySet();
+
+        private final List<Long> pagesAfter = new ArrayList<>();
+
+        void register(int count) {
+            for (int i = 0; i < count; i++) {
+                addCommitted(email(i));
+            }
+        }
+
+        void addCommitted(String email) {
+            emails.add(email);
+        }
+
+        @Override
+        public boolean emailExists(String email) {
+            return emails.contains(email) || uncommitted.contains(email);
+        }
+
+        @Override
+        public long countMembers() {
+            return emails.size();
+        }
+
+        // the member ids are the positions in the list
+        @Override
+        public List<IdAndEmail> findEmailsAfter(Long afterId, int maxResults) {
+            pagesAfter.add(afterId);
+            List<IdAndEmail> page = new ArrayList<>();
+            for (int i = afterId == null ? 0 : afterId.intValue() + 1; i < emails.size() && page.size() < maxResults; i++) {
+                page.add(new IdAndEmail((long) i, emails.get(i)));
+            }
+            return page;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class MemberListProducerTest {
+
+    @Test
+    public void testParseId() {
+        assertEquals(Long.valueOf(42), MemberListProducer.parseId("42"));
+        assertEquals(Long.valueOf(-1), MemberListProducer.parseId("-1"));
+    }
+
+    @Test
+    public void testParseMalformedId() {
+        assertNull(MemberListProducer.parseId(null));
+        assertNull(MemberListProducer.parseId(""));
+        assertNull(MemberListProducer.parseId("abc"));
+        assertNull(MemberListProducer.parseId("1.5"));
+        assertNull(MemberListProducer.parseId("99999999999999999999"));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.as.quickstarts.kitchensink.data.MemberEmailIndex;
+import org.jboss.as.quickstarts.kitchensink.data.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.service.MemberRegistration;
+import org.jboss.as.quickstarts.kitchensink.util.BloomFilter;
+import org.jboss.as.quickstarts.kitchensink.util.Resources;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares the time per call of the named queries of {@link MemberRepository} with the criteria queries it used to build
+ * on every call. The times are logged, and not asserted, as they depend on the machine running the server.
+ */
+@RunWith(Arquillian.class)
+public class MemberRepositoryBenchmarkIT {
+
+    private static final int MEMBERS = 20;
+
+    private static final int WARMUP_CALLS = 2000;
+
+    private static final int MEASURED_CALLS = 10000;
+
+    @Deployment
+    public static Archive<?> createTestArchive() {
+        return ShrinkWrap.create(WebArchive.class, "test.war")
+            .addClasses(Member.class, MemberRegistration.class, MemberEmailIndex.class, MemberRepository.class,
+                BloomFilter.class, Resources.class)
+            .addAsResource("META-INF/test-persistence.xml", "META-INF/persistence.xml")
+            .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml")
+            // Deploy our test datasource
+            .addAsWebInfResource("test-ds.xml");
+    }
+
+    @Inject
+    MemberRegistration memberRegistration;
+
+    @Inject
+    MemberRepository memberRepository;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    Logger log;
+
+    @Test
+    public void compareNamedAndCriteriaQueries() throws Exception {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            Member member = new Member();
+            member.setName("Member " + (char) ('a' + i));
+            member.setEmail("member" + i + "@mailinator.com");
+            member.setPhoneNumber("2125551234");
+            members.add(member);
+        }
+        memberRegistration.registerAll(members);
+        String email = "member7@mailinator.com";
+
+        // Both ways find the same members
+        assertEquals(findByEmailWithCriteria(email).getId(), memberRepository.findByEmail(email).getId());
+        assertEquals(ids(findAllOrderedByNameWithCriteria()), ids(memberRepository.findAllOrderedByName()));
+
+        log.info(String.format("findByEmail: criteria query %d ns/call, named query %d ns/call",
+            nanosPerCall(() -> findByEmailWithCriteria(email)), nanosPerCall(() -> memberRepository.findByEmail(email))));
+        log.info(String.format("findAllOrderedByName: criteria query %d ns/call, named query %d ns/call",
+            nanosPerCall(this::findAllOrderedByNameWithCriteria), nanosPerCall(memberRepository::findAllOrderedByName)));
+    }
+
+    private long nanosPerCall(Supplier<?> call) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.get();
+        }
+        return (System.nanoTime() - start) / MEASURED_CALLS;
+    }
+
+    private static List<Long> ids(List<Member> members) {
+        List<Long> ids = new ArrayList<>(members.size());
+        for (Member member : members) {
+            ids.add(member.getId());
+        }
+        return ids;
+    }
+
+    // The queries MemberRepository used to build on every call
+
+    private Member findByEmailWithCriteria(String email) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Member> criteria = cb.createQuery(Member.class);
+        Root<Member> member = criteria.from(Member.class);
+        criteria.select(member).where(cb.equal(member.get("email"), email));
+        return em.createQuery(criteria).getSingleResult();
+    }
+
+    private List<Member> findAllOrderedByNameWithCriteria() {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Member> criteria = cb.createQuery(Member.class);
+        Root<Member> member = criteria.from(Member.class);
+        criteria.select(member).orderBy(cb.asc(member.get("name")));
+        return em.createQuery(criteria).getResultList();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testEmptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        assertFalse(filter.mightContain("jane.doe@mailinator.com"));
+        assertFalse(filter.mightContain(""));
+    }
+
+    @Test
+    public void testAddedValuesAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(100000, 0.01);
+        for (int i = 0; i < 100000; i++) {
+            filter.add("member" + i + "@mailinator.com");
+        }
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(filter.mightContain("member" + i + "@mailinator.com"));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateIsCloseToTheConfiguredOne() {
+        BloomFilter filter = new BloomFilter(100000, 0.01);
+        for (int i = 0; i < 100000; i++) {
+            filter.add("member" + i + "@mailinator.com");
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("other" + i + "@mailinator.com")) {
+                falsePositives++;
+            }
+        }
+        assertTrue("False positive rate too high: " + falsePositives / 1000.0 + "%", falsePositives < 2000);
+    }
+
+    @Test
+    public void testConcurrentAddsAreNotLost() throws Exception {
+        final BloomFilter filter = new BloomFilter(80000, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        filter.add("member" + thread + "-" + i + "@mailinator.com");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (int t = 0; t < 8; t++) {
+            for (int i = 0; i < 10000; i++) {
+                assertTrue(filter.mightContain("member" + t + "-" + i + "@mailinator.com"));
+            }
+        }
+    }
+}
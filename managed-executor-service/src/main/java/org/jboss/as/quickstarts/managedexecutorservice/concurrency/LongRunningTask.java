@@ -41,12 +41,18 @@ public class LongRunningTask implements Callable<Integer> {
         List<Product> products = (List<Product>) entityManager.createQuery("SELECT p FROM Product p").getResultList();
         log.info("Starting a long running task");
         for (Product product : products) {
-            log.info("Analysing " + product.getName());
-            // We simulate now a long running task
-            Thread.sleep(3000);
+            analyse(product);
         }
         // after executing a long running task we return a result
         return (int) (Math.random() * 100);
     }
 
+    // Analyses a single product and returns its score, from 0 to 99
+    int analyse(Product product) throws InterruptedException {
+        log.info("Analysing " + product.getName());
+        // We simulate now a long running task
+        Thread.sleep(3000);
+        return (int) (Math.random() * 100);
+    }
+
 }
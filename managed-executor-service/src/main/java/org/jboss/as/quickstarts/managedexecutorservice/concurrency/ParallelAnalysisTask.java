@@ -0,0 +1,208 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.managedexecutorservice.concurrency;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.concurrent.ManagedTaskListener;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+
+import org.jboss.as.quickstarts.managedexecutorservice.model.Product;
+
+//This class runs the same analysis as LongRunningTask, but analyses up to "parallelism" products at the same time on the
+//ManagedExecutorService. The products are read a page at a time, and the partial results are aggregated in a ProductAnalysis.
+//No thread waits for the analyses: each analysis submits the next product when it ends, so the analyses can't starve the
+//executor of the threads they would wait for.
+public class ParallelAnalysisTask implements Runnable {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Inject
+    private Logger log;
+
+    @Inject
+    private EntityManager entityManager;
+
+    @Inject
+    private LongRunningTask longRunningTask;
+
+    @Inject
+    private TaskMetrics taskMetrics;
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    private ProductAnalysis analysis;
+
+    private Runnable onEnd;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    // The fields below are guarded by this task
+    private final Deque<Product> page = new ArrayDeque<>();
+
+    private long lastId;
+
+    private boolean lastPage;
+
+    private int running;
+
+    private boolean submitting;
+
+    private boolean ended;
+
+    public void setAnalysis(ProductAnalysis analysis) {
+        this.analysis = analysis;
+    }
+
+    // Called once the analysis has ended and no product is being analysed any more
+    public void setOnEnd(Runnable onEnd) {
+        this.onEnd = onEnd;
+    }
+
+    @Override
+    public void run() {
+        try {
+            analysis.setTotal(entityManager.createQuery("SELECT COUNT(p) FROM Product p", Long.class).getSingleResult());
+            log.info("Starting a parallel analysis with a parallelism of " + analysis.getParallelism());
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+        submitNext();
+    }
+
+    // Submits products until "parallelism" of them are being analysed, and ends the analysis once there are none left
+    private synchronized void submitNext() {
+        // An analysis rejected by the executor may end on this thread, while we are submitting
+        if (submitting || ended) {
+            return;
+        }
+        submitting = true;
+        try {
+            while (running < analysis.getParallelism() && !analysis.isCancelled() && failure.get() == null) {
+                Product product = nextProduct();
+                if (product == null) {
+                    break;
+                }
+                running++;
+                submit(product);
+            }
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            submitting = false;
+        }
+        if (running == 0) {
+            end();
+        }
+    }
+
+    private Product nextProduct() {
+        if (page.isEmpty() && !lastPage) {
+            List<Product> products = entityManager
+                .createQuery("SELECT p FROM Product p WHERE p.id > :lastId ORDER BY p.id", Product.class)
+                .setParameter("lastId", lastId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+            page.addAll(products);
+            lastPage = products.size() < PAGE_SIZE;
+            if (!products.isEmpty()) {
+                lastId = products.get(products.size() - 1).getId();
+            }
+        }
+        return page.poll();
+    }
+
+    private void submit(Product product) {
+        Completion completion = new Completion();
+        Runnable analyse = () -> {
+            try {
+                analysis.addScore(longRunningTask.analyse(product));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+        };
+        try {
+            Future<?> submitted = managedExecutorService.submit(taskMetrics.measure(analyse, completion));
+            analysis.track(submitted);
+            if (submitted.isDone()) {
+                analysis.untrack(submitted);
+            }
+        } catch (RejectedExecutionException e) {
+            failure.compareAndSet(null, e);
+            if (completion.done.compareAndSet(false, true)) {
+                running--;
+            }
+        }
+    }
+
+    private synchronized void analysed() {
+        running--;
+        submitNext();
+    }
+
+    private void end() {
+        ended = true;
+        if (failure.get() != null) {
+            analysis.failed(failure.get());
+        } else {
+            analysis.completed();
+        }
+        log.info("Parallel analysis " + analysis.getId() + " ended: " + analysis.getStatus());
+        if (onEnd != null) {
+            onEnd.run();
+        }
+    }
+
+    // The executor calls taskDone when the analysis of a product ends, even if it was cancelled before it started
+    private class Completion implements ManagedTaskListener {
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        @Override
+        public void taskSubmitted(Future<?> future, ManagedExecutorService executor, Object task) {
+        }
+
+        @Override
+        public void taskAborted(Future<?> future, ManagedExecutorService executor, Object task, Throwable exception) {
+        }
+
+        @Override
+        public void taskStarting(Future<?> future, ManagedExecutorService executor, Object task) {
+        }
+
+        @Override
+        public void taskDone(Future<?> future, ManagedExecutorService executor, Object task, Throwable exception) {
+            analysis.untrack(future);
+            if (done.compareAndSet(false, true)) {
+                analysed();
+            }
+        }
+    }
+}
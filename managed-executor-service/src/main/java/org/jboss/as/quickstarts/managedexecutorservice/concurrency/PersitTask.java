@@ -16,6 +16,7 @@
  */
 package org.jboss.as.quickstarts.managedexecutorservice.concurrency;
 
+import java.util.List;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
@@ -25,7 +26,7 @@ import javax.transaction.UserTransaction;
 
 import org.jboss.as.quickstarts.managedexecutorservice.model.Product;
 
-//This Runnable class is used to persist any Product
+//This Runnable class is used to persist a batch of Products in a single transaction
 public class PersitTask implements Runnable {
 
     @Inject
@@ -37,10 +38,16 @@ public class PersitTask implements Runnable {
     @Inject
     private UserTransaction userTransaction;
 
-    private Product product;
+    private List<Product> products;
 
-    public void setProduct(Product product) {
-        this.product = product;
+    private boolean committed;
+
+    public void setProducts(List<Product> products) {
+        this.products = products;
+    }
+
+    public boolean isCommitted() {
+        return committed;
     }
 
     @Override
@@ -48,19 +55,22 @@ public class PersitTask implements Runnable {
         try {
             log.info("Begin transaction");
             userTransaction.begin();
-            log.info("Persisting a new product");
-            entityManager.persist(product);
+            log.info("Persisting " + products.size() + " new products");
+            for (Product product : products) {
+                entityManager.persist(product);
+            }
             log.info("Commit transaction");
             userTransaction.commit();
+            committed = true;
         } catch (Exception e) {
-            log.info("Exception: " + e.getMessage());
+            log.warning("Exception: " + e.getMessage());
             try {
                 if (userTransaction != null) {
                     log.info("Rollback transaction");
                     userTransaction.rollback();
                 }
             } catch (SystemException e1) {
-                log.info("Failed to rollback transaction: " + e1.getMessage());
+                log.warning("Failed to rollback transaction: " + e1.getMessage());
             }
         }
 
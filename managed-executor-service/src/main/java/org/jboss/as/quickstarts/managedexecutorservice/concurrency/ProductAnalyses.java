@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.managedexecutorservice.concurrency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+//This class starts ParallelAnalysisTasks and keeps the most recent ProductAnalysis objects, so their status can be read and
+//they can be cancelled after the request that started them.
+@ApplicationScoped
+public class ProductAnalyses {
+
+    private static final int MAX_ANALYSES = 100;
+
+    // More products than this are never analysed at the same time, so a single analysis can't take over the executor
+    public static final int MAX_PARALLELISM = 16;
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    // Here we use Instance so ParallelAnalysisTask can have CDI injections available
+    @Inject
+    private Instance<ParallelAnalysisTask> parallelAnalysisTaskInstance;
+
+    @Inject
+    private TaskMetrics taskMetrics;
+
+    private final AtomicLong nextId = new AtomicLong();
+
+    // Oldest analyses are forgotten first, once they have ended
+    private final Map<Long, ProductAnalysis> analyses = new LinkedHashMap<>();
+
+    public ProductAnalysis start(int parallelism) {
+        ProductAnalysis analysis = new ProductAnalysis(nextId.incrementAndGet(), Math.min(parallelism, MAX_PARALLELISM));
+        ParallelAnalysisTask task = parallelAnalysisTaskInstance.get();
+        task.setAnalysis(analysis);
+        task.setOnEnd(() -> parallelAnalysisTaskInstance.destroy(task));
+        synchronized (analyses) {
+            analyses.put(analysis.getId(), analysis);
+            forgetEnded();
+        }
+        try {
+            Future<?> future = managedExecutorService.submit(taskMetrics.measure(task));
+            analysis.track(future);
+        } catch (RejectedExecutionException e) {
+            analysis.failed(e);
+            parallelAnalysisTaskInstance.destroy(task);
+        }
+        return analysis;
+    }
+
+    // Returns null if there is no such analysis, or if it was forgotten
+    public ProductAnalysis get(long id) {
+        synchronized (analyses) {
+            return analyses.get(id);
+        }
+    }
+
+    // Running analyses are kept even if there are too many, so they can still be cancelled
+    private void forgetEnded() {
+        Iterator<ProductAnalysis> iterator = analyses.values().iterator();
+        while (analyses.size() > MAX_ANALYSES && iterator.hasNext()) {
+            if (iterator.next().getState() != ProductAnalysis.State.RUNNING) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.managedexecutorservice.concurrency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+//This class holds the progress and the partial results of a ParallelAnalysisTask. It is updated by the analysis threads and
+//read by the REST resource, which can also cancel the analysis.
+public class ProductAnalysis {
+
+    public enum State {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final long id;
+
+    private final int parallelism;
+
+    private final long startTime = System.currentTimeMillis();
+
+    private volatile State state = State.RUNNING;
+
+    private volatile long total = -1;
+
+    private volatile long endTime;
+
+    private volatile String failure;
+
+    private final LongAdder analysed = new LongAdder();
+
+    private final LongAdder scoreSum = new LongAdder();
+
+    private final AtomicLong bestScore = new AtomicLong(-1);
+
+    // The coordinating task and the analyses still running, cancelled together
+    private final Set<Future<?>> futures = ConcurrentHashMap.newKeySet();
+
+    public ProductAnalysis(long id, int parallelism) {
+        this.id = id;
+        this.parallelism = parallelism;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+    }
+
+    void addScore(int score) {
+        scoreSum.add(score);
+        bestScore.accumulateAndGet(score, Math::max);
+        analysed.increment();
+    }
+
+    void track(Future<?> future) {
+        futures.add(future);
+        // The analysis may have been cancelled just before the future was tracked
+        if (isCancelled()) {
+            future.cancel(true);
+        }
+    }
+
+    void untrack(Future<?> future) {
+        futures.remove(future);
+    }
+
+    public void cancel() {
+        if (end(State.CANCELLED, null)) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    void completed() {
+        end(State.COMPLETED, null);
+    }
+
+    void failed(Throwable cause) {
+        end(State.FAILED, String.valueOf(cause));
+    }
+
+    // Returns the average score of the products analysed so far
+    public int getResult() {
+        long count = analysed.sum();
+        return count == 0 ? 0 : (int) (scoreSum.sum() / count);
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", id);
+        status.put("state", state);
+        status.put("parallelism", parallelism);
+        status.put("total", total);
+        status.put("analysed", analysed.sum());
+        status.put("result", getResult());
+        status.put("bestScore", bestScore.get());
+        status.put("elapsedMillis", (endTime == 0 ? System.currentTimeMillis() : endTime) - startTime);
+        if (failure != null) {
+            status.put("failure", failure);
+        }
+        return status;
+    }
+
+    private synchronized boolean end(State endState, String failure) {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        this.failure = failure;
+        endTime = System.currentTimeMillis();
+        state = endState;
+        return true;
+    }
+}
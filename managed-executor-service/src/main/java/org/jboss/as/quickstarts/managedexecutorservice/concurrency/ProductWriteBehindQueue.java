@@ -0,0 +1,207 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.managedexecutorservice.concurrency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.jboss.as.quickstarts.managedexecutorservice.model.Product;
+
+//This class queues new Products and persists them in batches on a few managed threads (write-behind), instead of using one
+//transaction per Product. A batch is committed when it is full, or when no more Products arrived during the batch window.
+//The queue is bounded: when it is full new Products are rejected, so callers can tell their clients to retry later.
+@ApplicationScoped
+public class ProductWriteBehindQueue {
+
+    private static final int CAPACITY = 10000;
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final long BATCH_WINDOW_MILLIS = 50;
+
+    // How long a worker waits for new Products before it returns its thread to the executor
+    private static final long IDLE_TIMEOUT_MILLIS = 1000;
+
+    private static final int MAX_WORKERS = 2;
+
+    @Inject
+    private Logger log;
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    // Here we use Instance so each PersistTask can have CDI injections available
+    @Inject
+    private Instance<PersitTask> persisTaskInstance;
+
+    @Inject
+    private TaskMetrics taskMetrics;
+
+    private final BlockingQueue<Product> queue = new ArrayBlockingQueue<>(CAPACITY);
+
+    private final AtomicInteger workers = new AtomicInteger();
+
+    // Products taken from the queue but not committed yet
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private final LongAdder committed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    // Returns false if the queue is full
+    public boolean offer(Product product) {
+        if (!queue.offer(product)) {
+            rejected.increment();
+            return false;
+        }
+        startWorkerIfNeeded();
+        return true;
+    }
+
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("pending", queue.size() + inFlight.get());
+        counts.put("committed", committed.sum());
+        counts.put("failed", failed.sum());
+        counts.put("rejected", rejected.sum());
+        counts.put("batches", batches.sum());
+        return counts;
+    }
+
+    // Starts a worker if there is none, or another one if the queue holds more than a batch
+    private void startWorkerIfNeeded() {
+        int current;
+        while ((current = workers.get()) < MAX_WORKERS && (current == 0 || queue.size() > BATCH_SIZE)) {
+            if (workers.compareAndSet(current, current + 1)) {
+                try {
+                    managedExecutorService.execute(taskMetrics.measure((Runnable) this::drain));
+                } catch (RejectedExecutionException e) {
+                    // the Products stay queued until the next offer starts a worker
+                    workers.decrementAndGet();
+                    log.info("Could not start a write-behind worker: " + e.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            List<Product> batch = new ArrayList<>(BATCH_SIZE);
+            Product first;
+            while ((first = queue.poll(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BATCH_WINDOW_MILLIS);
+                while (batch.size() < BATCH_SIZE) {
+                    queue.drainTo(batch, BATCH_SIZE - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() == BATCH_SIZE || remaining <= 0) {
+                        break;
+                    }
+                    Product next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                inFlight.addAndGet(batch.size());
+                try {
+                    commit(batch);
+                } finally {
+                    inFlight.addAndGet(-batch.size());
+                }
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.decrementAndGet();
+            // A Product may have been queued after the last poll but while this worker was still counted
+            if (!queue.isEmpty()) {
+                startWorkerIfNeeded();
+            }
+        }
+    }
+
+    // A batch that could not be committed, for any reason, is retried one Product per transaction, so that only the
+    // Products that can't be stored are counted as failed, and the worker goes on with the next batch
+    private void commit(List<Product> batch) {
+        batches.increment();
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (Product product : batch) {
+            ids.add(product.getId());
+        }
+        if (persist(batch)) {
+            committed.add(batch.size());
+            return;
+        }
+        if (batch.size() == 1) {
+            failed.increment();
+            return;
+        }
+        log.warning("Could not store a batch of " + batch.size() + " products, storing them one by one");
+        for (int i = 0; i < batch.size(); i++) {
+            Product product = batch.get(i);
+            // persist() assigned an id to the Products of the rolled back batch
+            product.setId(ids.get(i));
+            if (persist(Collections.singletonList(product))) {
+                committed.increment();
+            } else {
+                failed.increment();
+            }
+        }
+    }
+
+    // Returns true if the Products were committed in a single transaction
+    private boolean persist(List<Product> products) {
+        PersitTask pt = null;
+        try {
+            pt = persisTaskInstance.get();
+            pt.setProducts(products);
+            pt.run();
+            return pt.isCommitted();
+        } catch (RuntimeException e) {
+            log.warning("Could not store " + products.size() + " products: " + e.getMessage());
+            return false;
+        } finally {
+            if (pt != null) {
+                persisTaskInstance.destroy(pt);
+            }
+        }
+    }
+}
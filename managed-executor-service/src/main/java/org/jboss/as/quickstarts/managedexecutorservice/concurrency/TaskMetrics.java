@@ -0,0 +1,258 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.managedexecutorservice.concurrency;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.concurrent.ManagedTask;
+import javax.enterprise.concurrent.ManagedTaskListener;
+import javax.enterprise.context.ApplicationScoped;
+
+//This class counts the tasks submitted to the ManagedExecutorService, and measures how long they wait in its queue and how
+//long they run. The executor does not expose its queue, so a task is counted as queued from when it is submitted until it
+//starts, or until the executor reports through its ManagedTaskListener that it was cancelled before starting.
+@ApplicationScoped
+public class TaskMetrics {
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder started = new LongAdder();
+
+    // Tasks cancelled before they started
+    private final LongAdder notStarted = new LongAdder();
+
+    private final LongAdder finished = new LongAdder();
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder cancelled = new LongAdder();
+
+    private final LongAdder timedOut = new LongAdder();
+
+    private final LongAdder totalQueueNanos = new LongAdder();
+
+    private final LongAdder totalRunNanos = new LongAdder();
+
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    // Wraps the task so that its queue and run time are recorded. Call it when submitting the task
+    public <T> MeasuredTask<T> measure(Callable<T> task) {
+        return measure(task, null);
+    }
+
+    // Same as measure(task), the listener, which may be null, is also notified by the executor
+    public <T> MeasuredTask<T> measure(Callable<T> task, ManagedTaskListener listener) {
+        submitted.increment();
+        return new MeasuredTask<>(task, listener);
+    }
+
+    public MeasuredRunnable measure(Runnable task) {
+        return measure(task, null);
+    }
+
+    public MeasuredRunnable measure(Runnable task, ManagedTaskListener listener) {
+        return new MeasuredRunnable(measure(() -> {
+            task.run();
+            return null;
+        }, listener));
+    }
+
+    public Map<String, Long> getSnapshot() {
+        long startedCount = started.sum();
+        long finishedCount = finished.sum();
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("submitted", submitted.sum());
+        snapshot.put("queued", Math.max(0, submitted.sum() - startedCount - notStarted.sum()));
+        snapshot.put("running", Math.max(0, startedCount - finishedCount));
+        snapshot.put("completed", completed.sum());
+        snapshot.put("failed", failed.sum());
+        snapshot.put("cancelled", cancelled.sum());
+        snapshot.put("timedOut", timedOut.sum());
+        snapshot.put("averageQueueMillis", startedCount == 0 ? 0 : toMillis(totalQueueNanos.sum() / startedCount));
+        snapshot.put("maxQueueMillis", toMillis(maxQueueNanos.get()));
+        snapshot.put("averageRunMillis", finishedCount == 0 ? 0 : toMillis(totalRunNanos.sum() / finishedCount));
+        snapshot.put("maxRunMillis", toMillis(maxRunNanos.get()));
+        return snapshot;
+    }
+
+    private static void record(long nanos, LongAdder total, AtomicLong max) {
+        total.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    // A measured task is its own ManagedTaskListener, so that the executor tells it when it is cancelled, even if it never
+    // starts. Each task ends counted once: completed, failed, cancelled or timed out
+    public class MeasuredTask<T> implements Callable<T>, ManagedTask, ManagedTaskListener {
+
+        private static final int QUEUED = 0;
+
+        private static final int RUNNING = 1;
+
+        private static final int NOT_STARTED = 2;
+
+        private final Callable<T> task;
+
+        private final ManagedTaskListener listener;
+
+        private final long submittedAt = System.nanoTime();
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private volatile boolean aborted;
+
+        private volatile boolean expired;
+
+        private MeasuredTask(Callable<T> task, ManagedTaskListener listener) {
+            this.task = task;
+            this.listener = listener;
+        }
+
+        @Override
+        public T call() throws Exception {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                throw new CancellationException("The task was cancelled before it started");
+            }
+            long startedAt = System.nanoTime();
+            started.increment();
+            record(startedAt - submittedAt, totalQueueNanos, maxQueueNanos);
+            boolean success = false;
+            try {
+                T result = task.call();
+                success = true;
+                return result;
+            } finally {
+                record(System.nanoTime() - startedAt, totalRunNanos, maxRunNanos);
+                finished.increment();
+                if (expired) {
+                    timedOut.increment();
+                } else if (success) {
+                    completed.increment();
+                } else if (aborted) {
+                    cancelled.increment();
+                } else {
+                    failed.increment();
+                }
+            }
+        }
+
+        // Call it before cancelling the task because it took too long, so that it is counted as timed out
+        public void timedOut() {
+            expired = true;
+        }
+
+        @Override
+        public ManagedTaskListener getManagedTaskListener() {
+            return this;
+        }
+
+        @Override
+        public Map<String, String> getExecutionProperties() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public void taskSubmitted(Future<?> future, ManagedExecutorService executor, Object task) {
+            if (listener != null) {
+                listener.taskSubmitted(future, executor, task);
+            }
+        }
+
+        @Override
+        public void taskAborted(Future<?> future, ManagedExecutorService executor, Object task, Throwable exception) {
+            aborted = true;
+            // A task cancelled while it runs is counted when it ends
+            if (state.compareAndSet(QUEUED, NOT_STARTED)) {
+                notStarted.increment();
+                if (expired) {
+                    timedOut.increment();
+                } else {
+                    cancelled.increment();
+                }
+            }
+            if (listener != null) {
+                listener.taskAborted(future, executor, task, exception);
+            }
+        }
+
+        @Override
+        public void taskStarting(Future<?> future, ManagedExecutorService executor, Object task) {
+            if (listener != null) {
+                listener.taskStarting(future, executor, task);
+            }
+        }
+
+        @Override
+        public void taskDone(Future<?> future, ManagedExecutorService executor, Object task, Throwable exception) {
+            if (listener != null) {
+                listener.taskDone(future, executor, task, exception);
+            }
+        }
+    }
+
+    public class MeasuredRunnable implements Runnable, ManagedTask {
+
+        private final MeasuredTask<Void> measured;
+
+        private MeasuredRunnable(MeasuredTask<Void> measured) {
+            this.measured = measured;
+        }
+
+        @Override
+        public void run() {
+            try {
+                measured.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                // a Runnable can't throw checked exceptions
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public void timedOut() {
+            measured.timedOut();
+        }
+
+        @Override
+        public ManagedTaskListener getManagedTaskListener() {
+            return measured;
+        }
+
+        @Override
+        public Map<String, String> getExecutionProperties() {
+            return measured.getExecutionProperties();
+        }
+    }
+}
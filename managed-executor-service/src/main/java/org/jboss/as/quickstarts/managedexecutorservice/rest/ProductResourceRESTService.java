@@ -16,8 +16,12 @@
  */
 package org.jboss.as.quickstarts.managedexecutorservice.rest;
 
-import java.util.concurrent.ExecutionException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.annotation.Resource;
@@ -26,16 +30,27 @@ import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import org.jboss.as.quickstarts.managedexecutorservice.concurrency.DeleteTask;
 import org.jboss.as.quickstarts.managedexecutorservice.concurrency.LongRunningTask;
-import org.jboss.as.quickstarts.managedexecutorservice.concurrency.PersitTask;
+import org.jboss.as.quickstarts.managedexecutorservice.concurrency.ProductAnalyses;
+import org.jboss.as.quickstarts.managedexecutorservice.concurrency.ProductAnalysis;
+import org.jboss.as.quickstarts.managedexecutorservice.concurrency.ProductWriteBehindQueue;
+import org.jboss.as.quickstarts.managedexecutorservice.concurrency.TaskMetrics;
 import org.jboss.as.quickstarts.managedexecutorservice.model.Product;
 
 @Path("/products")
@@ -47,10 +62,6 @@ public class ProductResourceRESTService {
     @Resource
     private ManagedExecutorService managedExecutorService;
 
-    // Here we use Instance so PersistTask can have CDI injections available
-    @Inject
-    private Instance<PersitTask> persisTaskInstance;
-
     // Here we use Instance so LongRunningTask can have CDI injections available
     @Inject
     private Instance<LongRunningTask> longRunningTaskIntance;
@@ -59,9 +70,18 @@ public class ProductResourceRESTService {
     @Inject
     private Instance<DeleteTask> deleteTaskInstance;
 
+    @Inject
+    private TaskMetrics taskMetrics;
+
+    @Inject
+    private ProductWriteBehindQueue productWriteBehindQueue;
+
+    @Inject
+    private ProductAnalyses productAnalyses;
+
     /**
-     * Creates a new contact from the values provided and will return a JAX-RS response with either 200 ok, or 400 (BAD REQUEST)
-     * in case of errors.
+     * Creates a new contact from the values provided and will return a JAX-RS response with either 200 ok, 503 (SERVICE
+     * UNAVAILABLE) if too many products are waiting to be stored, or 400 (BAD REQUEST) in case of errors.
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
@@ -69,15 +89,16 @@ public class ProductResourceRESTService {
     public Response createContact(Product product) {
         Response.ResponseBuilder builder = null;
         try {
-            PersitTask pt = persisTaskInstance.get();
-            pt.setProduct(product);
-            // Store the product on a separated Thread
+            // Queue the product, it will be stored with other products on a separated Thread
             log.info("Will create a new Product on other Thread");
-            managedExecutorService.execute(pt);
-
-            // Create an "ok" response with the persisted contact
-            log.info("Returning response");
-            builder = Response.ok();
+            if (productWriteBehindQueue.offer(product)) {
+                // Create an "ok" response with the persisted contact
+                log.info("Returning response");
+                builder = Response.ok();
+            } else {
+                log.info("Too many products waiting to be stored, rejecting the product");
+                builder = Response.status(Response.Status.SERVICE_UNAVAILABLE).header("Retry-After", 1);
+            }
         } catch (Exception e) {
             // Handle generic exceptions
             e.printStackTrace();
@@ -87,21 +108,113 @@ public class ProductResourceRESTService {
         return builder.build();
     }
 
+    /**
+     * Runs a LongRunningTask and returns its result. The request is suspended instead of waiting for the task, so no HTTP
+     * worker thread is held while the task runs. If the task takes longer than the timeout (in seconds) it is cancelled and
+     * a 503 (SERVICE UNAVAILABLE) response is returned.
+     */
     @GET
     @Path("/longrunningtask")
-    public String processLongRunningTask() throws InterruptedException, ExecutionException {
+    public void processLongRunningTask(@QueryParam("timeout") @DefaultValue("60") long timeout,
+        @Suspended AsyncResponse asyncResponse) {
         LongRunningTask lrt = longRunningTaskIntance.get();
         log.info("Submitting a new long running task to be executed");
-        Future<Integer> futureResult = managedExecutorService.submit(lrt);
-        // wait for the result to be available
-        while (!futureResult.isDone()) {
-            log.info("Waiting for the result to be available...");
-            Thread.sleep(300);
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        TaskMetrics.MeasuredTask<Void> task = taskMetrics.measure(() -> {
+            try {
+                result.complete(lrt.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+                throw e;
+            }
+            return null;
+        });
+        Future<?> futureResult = managedExecutorService.submit(task);
+        asyncResponse.setTimeout(timeout, TimeUnit.SECONDS);
+        asyncResponse.setTimeoutHandler(response -> {
+            log.info("Long running task timed out, cancelling it");
+            task.timedOut();
+            futureResult.cancel(true);
+            result.cancel(true);
+            response.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("Timed out").build());
+        });
+        // Called on the thread that completes the task, the response is sent from there
+        result.whenComplete((value, failure) -> {
+            if (failure == null) {
+                log.info("Result is available. Returning result..." + value);
+                asyncResponse.resume("Result: " + value);
+            } else if (!(failure instanceof CancellationException)) {
+                asyncResponse.resume(failure);
+            }
+        });
+    }
+
+    /**
+     * Starts analysing all the products, up to "parallelism" of them at the same time (by default, as many as there are
+     * processors, and never more than {@link ProductAnalyses#MAX_PARALLELISM}). The analysis runs in the background, a 202
+     * (ACCEPTED) response with its status is returned at once and the Location header gives the URL of its status.
+     */
+    @POST
+    @Path("/analyses")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response startAnalysis(@QueryParam("parallelism") Integer parallelism, @Context UriInfo uriInfo) {
+        int actualParallelism = parallelism == null ? Runtime.getRuntime().availableProcessors() : parallelism;
+        if (actualParallelism < 1) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        ProductAnalysis analysis = productAnalyses.start(actualParallelism);
+        URI location = uriInfo.getAbsolutePathBuilder().path(String.valueOf(analysis.getId())).build();
+        return Response.accepted(analysis.getStatus()).location(location).build();
+    }
+
+    /**
+     * Returns the progress of an analysis, and its result so far.
+     */
+    @GET
+    @Path("/analyses/{id:[0-9]+}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Object> getAnalysisStatus(@PathParam("id") long id) {
+        return findAnalysis(id).getStatus();
+    }
+
+    /**
+     * Cancels an analysis. The products not analysed yet are skipped, and the ones being analysed are interrupted.
+     */
+    @DELETE
+    @Path("/analyses/{id:[0-9]+}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Object> cancelAnalysis(@PathParam("id") long id) {
+        ProductAnalysis analysis = findAnalysis(id);
+        analysis.cancel();
+        return analysis.getStatus();
+    }
+
+    private ProductAnalysis findAnalysis(long id) {
+        ProductAnalysis analysis = productAnalyses.get(id);
+        if (analysis == null) {
+            throw new WebApplicationException(Response.Status.NOT_FOUND);
         }
-        Integer result = futureResult.get();
-        log.info("Result is available. Returning result..." + result);
-        // Return the result
-        return "Result: " + result;
+        return analysis;
+    }
+
+    /**
+     * Returns the number of tasks queued and running on the ManagedExecutorService, and how long they waited and ran.
+     */
+    @GET
+    @Path("/metrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Long> getTaskMetrics() {
+        return taskMetrics.getSnapshot();
+    }
+
+    /**
+     * Returns the number of products waiting to be stored, and the number of products stored, failed and rejected.
+     */
+    @GET
+    @Path("/writebehind")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Long> getWriteBehindCounts() {
+        return productWriteBehindQueue.getCounts();
     }
 
     @DELETE
@@ -109,7 +222,7 @@ public class ProductResourceRESTService {
         DeleteTask dt = deleteTaskInstance.get();
         // Delete all Products on a separated Thread
         log.info("Will delete all Products on other Thread");
-        managedExecutorService.execute(dt);
+        managedExecutorService.execute(taskMetrics.measure(dt));
         log.info("Returning response");
         return Response.ok().build();
     }
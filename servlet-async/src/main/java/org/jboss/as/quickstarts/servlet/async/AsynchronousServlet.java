@@ -46,6 +46,11 @@ import javax.servlet.http.HttpServletResponse;
  * busy interacting with the long-running service and that more requests can be served that do not depend on this service.
  * </p>
  *
+ * <p>
+ * With the <code>mode=scheduled</code> request parameter the {@link ScheduledResponseService} is used instead, which does not
+ * hold any thread while the task runs nor while the response is written.
+ * </p>
+ *
  * @author Christian Sadilek <csadilek@redhat.com>
  */
 @SuppressWarnings("serial")
@@ -55,13 +60,20 @@ public class AsynchronousServlet extends HttpServlet {
     @Inject
     private LongRunningService longRunningService;
 
+    @Inject
+    private ScheduledResponseService scheduledResponseService;
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
         // Here the request is put in asynchronous mode
         AsyncContext asyncContext = req.startAsync();
 
-        // This method will return immediately when invoked,
+        // These methods will return immediately when invoked,
         // the actual execution will run in a separate thread.
-        longRunningService.readData(asyncContext);
+        if ("scheduled".equals(req.getParameter("mode"))) {
+            scheduledResponseService.readData(asyncContext);
+        } else {
+            longRunningService.readData(asyncContext);
+        }
     }
 }
@@ -0,0 +1,108 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.servlet.async;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+/**
+ * Simulates the same long running task as {@link LongRunningService}, without holding a thread while it runs.
+ * <p>
+ * Instead of sleeping, the completion of the task is scheduled on a {@link ManagedScheduledExecutorService}, and the response is
+ * written with a {@link WriteListener}, so no thread waits for the client either. A suspended request only costs memory, however
+ * many of them are waiting.
+ * </p>
+ */
+@ApplicationScoped
+public class ScheduledResponseService {
+
+    private final Logger logger = Logger.getLogger(ScheduledResponseService.class.getName());
+
+    @Resource
+    private ManagedScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * Completes the suspended request after the simulated task duration.
+     *
+     * @param asyncContext the context for a suspended Servlet request that this service will complete later.
+     */
+    public void readData(AsyncContext asyncContext) {
+        scheduledExecutorService.schedule(() -> writeResponse(asyncContext), 5, TimeUnit.SECONDS);
+    }
+
+    private void writeResponse(AsyncContext asyncContext) {
+        try {
+            byte[] data = (new SimpleDateFormat("HH:mm:ss").format(new Date()) + System.lineSeparator())
+                .getBytes(StandardCharsets.UTF_8);
+            asyncContext.getResponse().setContentLength(data.length);
+            ServletOutputStream output = asyncContext.getResponse().getOutputStream();
+            output.setWriteListener(new ResponseWriter(asyncContext, output, data));
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, e.getMessage(), e);
+            asyncContext.complete();
+        }
+    }
+
+    // Writes the data whenever the output stream can take it, and completes the request once everything is written
+    private class ResponseWriter implements WriteListener {
+
+        private final AsyncContext asyncContext;
+
+        private final ServletOutputStream output;
+
+        private final byte[] data;
+
+        private boolean written;
+
+        ResponseWriter(AsyncContext asyncContext, ServletOutputStream output, byte[] data) {
+            this.asyncContext = asyncContext;
+            this.output = output;
+            this.data = data;
+        }
+
+        @Override
+        public void onWritePossible() throws IOException {
+            // The data is small enough to be written at once. If the stream is not ready, this method is called again once the
+            // data has been sent
+            if (!written && output.isReady()) {
+                output.write(data);
+                written = true;
+            }
+            if (written && output.isReady()) {
+                asyncContext.complete();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            logger.log(Level.SEVERE, t.getMessage(), t);
+            asyncContext.complete();
+        }
+    }
+}
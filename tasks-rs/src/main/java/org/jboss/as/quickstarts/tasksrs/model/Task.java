@@ -23,11 +23,14 @@ import static javax.persistence.GenerationType.IDENTITY;
 
 import java.io.Serializable;
 import java.io.StringReader;
+import java.util.Locale;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.xml.bind.JAXB;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
@@ -38,10 +41,15 @@ import javax.xml.bind.annotation.XmlTransient;
  * User's task entity which is marked up with JPA annotations and JAXB for serializing XML
  * (and JSON if required)
  *
+ * The title is also stored in lower case, next to the owner in a composite index, so that a case insensitive search for
+ * the titles starting with a given text is a range scan of that index, and a search for the titles containing it reads
+ * only the owner's index entries, instead of applying LOWER() to every row.
+ *
  * @author Oliver Kiss and others
  */
 @SuppressWarnings("serial")
 @Entity
+@Table(indexes = @Index(name = "IDX_TASK_OWNER_TITLE", columnList = "owner_id, lowerCaseTitle"))
 @XmlRootElement(name = "task")
 public class Task implements Serializable {
 
@@ -54,12 +62,14 @@ public class Task implements Serializable {
 
     private String title;
 
+    private String lowerCaseTitle;
+
     public Task() {
     }
 
     public Task(String title) {
         super();
-        this.title = title;
+        setTitle(title);
     }
 
     @XmlAttribute
@@ -94,6 +104,7 @@ public class Task implements Serializable {
 
     public void setTitle(String title) {
         this.title = title;
+        this.lowerCaseTitle = toLowerCase(title);
     }
 
     @Override
@@ -134,6 +145,10 @@ public class Task implements Serializable {
         return true;
     }
 
+    static String toLowerCase(String title) {
+        return title == null ? null : title.toLowerCase(Locale.ROOT);
+    }
+
     public static Task stringToTask(String content) {
         return JAXB.unmarshal(new StringReader(content), Task.class);
     }
@@ -31,11 +31,21 @@ public interface TaskDao {
 
     void createTask(User user, Task task);
 
+    Task getById(User user, Long id);
+
     List<Task> getAll(User user);
 
     List<Task> getRange(User user, int offset, int count);
 
+    /**
+     * Returns the tasks whose title contains the given text, ignoring case.
+     */
     List<Task> getForTitle(User user, String title);
 
+    /**
+     * Returns the tasks whose title starts with the given text, ignoring case.
+     */
+    List<Task> getForTitlePrefix(User user, String prefix);
+
     void deleteTask(Task task);
 }
@@ -46,6 +46,17 @@ public class TaskDaoImpl implements TaskDao {
         em.persist(task);
     }
 
+    @Override
+    public Task getById(User user, Long id) {
+        List<Task> result = em.createQuery("SELECT t FROM Task t WHERE t.id = ?1 AND t.owner = ?2", Task.class)
+            .setParameter(1, id).setParameter(2, user).getResultList();
+
+        if (result.isEmpty()) {
+            return null;
+        }
+        return result.get(0);
+    }
+
     @Override
     public List<Task> getAll(User user) {
         TypedQuery<Task> query = querySelectAllTasksFromUser(user);
@@ -62,9 +73,14 @@ public class TaskDaoImpl implements TaskDao {
 
     @Override
     public List<Task> getForTitle(User user, String title) {
-        String lowerCaseTitle = "%" + title.toLowerCase() + "%";
-        return em.createQuery("SELECT t FROM Task t WHERE t.owner = ?1 AND LOWER(t.title) LIKE ?2", Task.class)
-            .setParameter(1, user).setParameter(2, lowerCaseTitle).getResultList();
+        // A substring pattern reads all of the user's entries of IDX_TASK_OWNER_TITLE, but no other rows
+        return queryForLowerCaseTitle(user, "%" + escapeLike(Task.toLowerCase(title)) + "%").getResultList();
+    }
+
+    @Override
+    public List<Task> getForTitlePrefix(User user, String prefix) {
+        // A prefix pattern is a range scan of IDX_TASK_OWNER_TITLE
+        return queryForLowerCaseTitle(user, escapeLike(Task.toLowerCase(prefix)) + "%").getResultList();
     }
 
     @Override
@@ -75,6 +91,17 @@ public class TaskDaoImpl implements TaskDao {
         em.remove(task);
     }
 
+    private TypedQuery<Task> queryForLowerCaseTitle(User user, String pattern) {
+        return em
+            .createQuery("SELECT t FROM Task t WHERE t.owner = ?1 AND t.lowerCaseTitle LIKE ?2 ESCAPE '\\'", Task.class)
+            .setParameter(1, user).setParameter(2, pattern);
+    }
+
+    // Makes the wildcards in the searched text match themselves
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     private TypedQuery<Task> querySelectAllTasksFromUser(User user) {
         return em.createQuery("SELECT t FROM Task t WHERE t.owner = ?1", Task.class).setParameter(1, user);
     }
@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.tasksrs.model;
+
+import java.util.List;
+
+import javax.annotation.Resource;
+import javax.ejb.SessionContext;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+
+/**
+ * Finds the id of a user by its username, and creates the user if it does not exist yet.
+ *
+ * Unlike the DAOs, this bean uses a transaction scoped persistence context, so it can be shared by concurrent requests. The
+ * user is inserted in a transaction of its own. When two requests insert the same username at once, the unique constraint
+ * rolls back one of the inserts, and that request reads the user the other one created.
+ */
+@Stateless
+public class UserIdLookup {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Resource
+    private SessionContext context;
+
+    public Long findOrCreate(String username) {
+        Long id = find(username);
+        if (id != null) {
+            return id;
+        }
+
+        // through the business object, so that the container starts the new transaction
+        id = context.getBusinessObject(UserIdLookup.class).create(username);
+        if (id != null) {
+            return id;
+        }
+
+        // a concurrent request created the user first, its transaction has committed by now
+        id = find(username);
+        if (id == null) {
+            throw new IllegalStateException("Could neither create nor find user " + username);
+        }
+        return id;
+    }
+
+    /**
+     * Inserts the user and returns its id, or null when the username is already taken.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public Long create(String username) {
+        try {
+            User user = new User(username);
+            em.persist(user);
+            em.flush();
+            return user.getId();
+        } catch (PersistenceException e) {
+            // the transaction has been marked for rollback, which leaves the other insert in place
+            return null;
+        }
+    }
+
+    private Long find(String username) {
+        List<Long> result = em.createQuery("select u.id from User u where u.username = ?1", Long.class)
+            .setParameter(1, username).getResultList();
+
+        if (result.isEmpty()) {
+            return null;
+        }
+        return result.get(0);
+    }
+}
@@ -38,7 +38,6 @@ import javax.ws.rs.core.UriInfo;
 import org.jboss.as.quickstarts.tasksrs.model.Task;
 import org.jboss.as.quickstarts.tasksrs.model.TaskDao;
 import org.jboss.as.quickstarts.tasksrs.model.User;
-import org.jboss.as.quickstarts.tasksrs.model.UserDao;
 
 /**
  * A JAX-RS resource for exposing REST endpoints for Task manipulation
@@ -46,7 +45,7 @@ import org.jboss.as.quickstarts.tasksrs.model.UserDao;
 @Path("/")
 public class TaskResource {
     @Inject
-    private UserDao userDao;
+    private UserIdCache userIdCache;
 
     @Inject
     private TaskDao taskDao;
@@ -98,6 +97,15 @@ public class TaskResource {
         return getTasks(getUser(context), title);
     }
 
+    @GET
+    @Path("tasks/titleprefix/{prefix}")
+    // JSON: include "application/json" in the @Produces annotation to include json support
+    // @Produces({ "application/xml", "application/json" })
+    @Produces({ "application/xml" })
+    public List<Task> getTasksByTitlePrefix(@Context SecurityContext context, @PathParam("prefix") String prefix) {
+        return taskDao.getForTitlePrefix(getUser(context), prefix);
+    }
+
     @GET
     @Path("tasks/title")
     // JSON: include "application/json" in the @Produces annotation to include json support
@@ -118,9 +126,10 @@ public class TaskResource {
     }
 
     private Task getTask(User user, Long id) {
-        for (Task task : taskDao.getAll(user))
-            if (task.getId().equals(id))
-                return task;
+        Task task = taskDao.getById(user, id);
+
+        if (task != null)
+            return task;
 
         throw new WebApplicationException(Response.Status.NOT_FOUND);
     }
@@ -140,15 +149,7 @@ public class TaskResource {
     private User getUser(String username) {
 
         try {
-            User user = userDao.getForUsername(username);
-
-            if (user == null) {
-                user = new User(username);
-
-                userDao.createUser(user);
-            }
-
-            return user;
+            return userIdCache.getUser(username);
         } catch (Exception e) {
             throw new WebApplicationException(e);
         }
@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.tasksrs.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.jboss.as.quickstarts.tasksrs.model.User;
+import org.jboss.as.quickstarts.tasksrs.model.UserIdLookup;
+
+/**
+ * Maps authenticated user names to the ids of their {@link User} entities, so that a request does not have to query the
+ * database just to find out who is calling.
+ *
+ * The cache keeps the most recently used names and evicts the least recently used one when it is full. A user that is seen
+ * for the first time is created by the {@link UserIdLookup}, which also takes care of two requests creating the same user at
+ * the same time. This cache only holds the ids.
+ */
+@ApplicationScoped
+public class UserIdCache {
+
+    static final int MAX_SIZE = 1000;
+
+    @Inject
+    private UserIdLookup userIdLookup;
+
+    private final Map<String, Long> ids = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    /**
+     * Returns a detached user with the given name and its id, creating the user if it does not exist yet.
+     */
+    public User getUser(String username) {
+        Long id;
+        synchronized (ids) {
+            id = ids.get(username);
+        }
+
+        if (id == null) {
+            id = userIdLookup.findOrCreate(username);
+            synchronized (ids) {
+                ids.put(username, id);
+            }
+        }
+
+        User user = new User(username);
+        user.setId(id);
+        return user;
+    }
+
+    /**
+     * Forgets the id of the given user, so that the next request looks it up again.
+     */
+    public void invalidate(String username) {
+        synchronized (ids) {
+            ids.remove(username);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (ids) {
+            ids.clear();
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.jboss.as.quickstarts.tasksrs;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.FileNotFoundException;
@@ -123,6 +124,44 @@ public class TaskDaoIT {
 
     @Test
     @InSequence(5)
+    public void taskDao_should_search_title_prefixes_and_match_wildcards_literally() {
+        // given
+        String taskTitlePrefix = "JOHNS";
+
+        // when
+        List<Task> titledTasks = taskDao.getForTitlePrefix(detachedUser, taskTitlePrefix);
+        List<Task> infixTasks = taskDao.getForTitlePrefix(detachedUser, "TASK");
+        List<Task> containingTasks = taskDao.getForTitle(detachedUser, "TASK");
+        List<Task> wildcardTasks = taskDao.getForTitlePrefix(detachedUser, "johns_");
+        List<Task> containingWildcardTasks = taskDao.getForTitle(detachedUser, "s_");
+
+        // then
+        assertEquals(2, titledTasks.size());
+        assertTrue(infixTasks.isEmpty());
+        assertEquals(2, containingTasks.size());
+        assertTrue(wildcardTasks.isEmpty());
+        assertTrue(containingWildcardTasks.isEmpty());
+    }
+
+    @Test
+    @InSequence(6)
+    public void task_should_be_obtained_by_id_only_for_its_owner() {
+        // given
+        User otherUser = new User("emuster");
+        otherUser.setId(2L);
+
+        // when
+        Task task = taskDao.getById(detachedUser, 1L);
+
+        // then
+        assertEquals(Long.valueOf(1L), task.getId());
+        assertTrue(task.getTitle().contains("first"));
+        assertNull(taskDao.getById(otherUser, 1L));
+        assertNull(taskDao.getById(detachedUser, 42L));
+    }
+
+    @Test
+    @InSequence(7)
     public void taskDao_should_remove_task_from_detachedUser() {
         // given
         Task task = new Task();
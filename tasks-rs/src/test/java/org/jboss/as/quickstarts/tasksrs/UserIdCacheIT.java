@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.tasksrs;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.as.quickstarts.tasksrs.model.Resources;
+import org.jboss.as.quickstarts.tasksrs.model.Task;
+import org.jboss.as.quickstarts.tasksrs.model.TaskDao;
+import org.jboss.as.quickstarts.tasksrs.model.User;
+import org.jboss.as.quickstarts.tasksrs.model.UserDao;
+import org.jboss.as.quickstarts.tasksrs.model.UserDaoImpl;
+import org.jboss.as.quickstarts.tasksrs.model.UserIdLookup;
+import org.jboss.as.quickstarts.tasksrs.service.UserIdCache;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(Arquillian.class)
+public class UserIdCacheIT {
+
+    @Deployment
+    public static WebArchive deployment() throws IllegalArgumentException, FileNotFoundException {
+        return new DefaultDeployment().withPersistence().withImportedData().getArchive()
+                .addClasses(Resources.class, User.class, UserDao.class, Task.class, TaskDao.class, UserDaoImpl.class,
+                        UserIdLookup.class, UserIdCache.class);
+    }
+
+    @Inject
+    private UserIdCache userIdCache;
+
+    @Inject
+    private EntityManager em;
+
+    @Test
+    public void existing_user_should_be_resolved_to_its_id() {
+        // when
+        User user = userIdCache.getUser("jdoe");
+
+        // then
+        assertEquals(Long.valueOf(1L), user.getId());
+        assertEquals("jdoe", user.getUsername());
+    }
+
+    @Test
+    public void concurrent_first_requests_should_create_the_user_once() throws Exception {
+        // given
+        final String username = "concurrentUser";
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Long>> results = new ArrayList<>();
+
+        // when
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() throws Exception {
+                        start.await();
+                        return userIdCache.getUser(username).getId();
+                    }
+                }));
+            }
+            start.countDown();
+
+            Set<Long> ids = new HashSet<>();
+            for (Future<Long> result : results) {
+                ids.add(result.get());
+            }
+
+            // then
+            assertEquals(1, ids.size());
+            assertEquals(Long.valueOf(1L), em.createQuery("select count(u) from User u where u.username = ?1", Long.class)
+                    .setParameter(1, username).getSingleResult());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void invalidated_user_should_be_resolved_again() {
+        // given
+        Long id = userIdCache.getUser("emuster").getId();
+
+        // when
+        userIdCache.invalidate("emuster");
+
+        // then
+        assertEquals(id, userIdCache.getUser("emuster").getId());
+    }
+}
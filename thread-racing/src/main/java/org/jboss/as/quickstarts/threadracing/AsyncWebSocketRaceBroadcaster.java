@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing;
+
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link org.jboss.as.quickstarts.threadracing.WebSocketRaceBroadcaster} which sends messages asynchronously, through the session's async remote, so racer threads never block on the client's socket.
+ *
+ * Messages are put in a bounded queue, and there is at most one send in progress: all messages queued meanwhile are sent together, in a single frame, once it completes.
+ * When the queue is full race progress messages are dropped, while other messages wait for room in the queue.
+ */
+public class AsyncWebSocketRaceBroadcaster extends WebSocketRaceBroadcaster {
+
+    /**
+     * the max number of messages waiting to be sent
+     */
+    private static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * the messages waiting to be sent
+     */
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * true while a send is in progress, guarded by this
+     */
+    private boolean sending;
+
+    /**
+     * the number of progress messages dropped since the last send, guarded by this
+     */
+    private int dropped;
+
+    /**
+     * Creates a new async web socket broadcaster
+     * @param session the session where race progress messages will be sent.
+     * @param theatrics if false the broadcaster does not pause between messages
+     */
+    public AsyncWebSocketRaceBroadcaster(Session session, boolean theatrics) {
+        super(session, theatrics);
+    }
+
+    @Override
+    protected void sendToClient(String message) {
+        try {
+            queue.put(message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        sendQueued();
+    }
+
+    @Override
+    public void raceProgress(String msg) {
+        if (queue.offer(msg + "<br/>")) {
+            sendQueued();
+        } else {
+            synchronized (this) {
+                dropped++;
+            }
+        }
+    }
+
+    /**
+     * Waits until all queued messages are sent.
+     * @param timeout
+     * @param unit
+     * @return false if the timeout expired before all messages were sent
+     * @throws InterruptedException
+     */
+    public synchronized boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (sending || !queue.isEmpty()) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Sends all queued messages in a single frame, unless a send is already in progress.
+     */
+    private void sendQueued() {
+        final StringBuilder frame = new StringBuilder();
+        synchronized (this) {
+            if (sending || queue.isEmpty()) {
+                return;
+            }
+            sending = true;
+            if (dropped > 0) {
+                frame.append("(").append(dropped).append(" race progress messages dropped)<br/>");
+                dropped = 0;
+            }
+        }
+        String message;
+        while ((message = queue.poll()) != null) {
+            frame.append(message);
+        }
+        session.getAsyncRemote().sendText(frame.toString(), this::onSendCompleted);
+    }
+
+    /**
+     * The handler of the async send's result, which sends any messages queued meanwhile.
+     * @param result
+     */
+    private void onSendCompleted(SendResult result) {
+        if (!result.isOK()) {
+            result.getException().printStackTrace();
+        }
+        synchronized (this) {
+            sending = false;
+            notifyAll();
+        }
+        sendQueued();
+    }
+}
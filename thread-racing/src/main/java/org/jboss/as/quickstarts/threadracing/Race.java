@@ -16,14 +16,18 @@
  */
 package org.jboss.as.quickstarts.threadracing;
 
+import org.jboss.as.quickstarts.threadracing.benchmark.RaceStatistics;
 import org.jboss.as.quickstarts.threadracing.results.ChampionshipStandings;
 import org.jboss.as.quickstarts.threadracing.results.RaceResult;
 import org.jboss.as.quickstarts.threadracing.results.RaceResults;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -53,11 +57,6 @@ public class Race {
      */
     private AtomicInteger abortedPosition;
 
-    /**
-     * the race result
-     */
-    private RaceResult result;
-
     /**
      * the race's environment
      */
@@ -69,55 +68,60 @@ public class Race {
     private final RaceBroadcaster broadcaster;
 
     /**
-     * the past race results
+     * the past race results, null if the race does not count for the championship
      */
     private final RaceResults results;
 
     /**
-     * the racer #1
+     * the race statistics, null if not collected
      */
-    private final Racer racer1;
+    private final RaceStatistics statistics;
 
     /**
-     * the racer #2
+     * the racers
      */
-    private final Racer racer2;
+    private final List<Racer> racers;
 
     /**
-     * the racer #3
+     * the racers registrations, in the same order as the racers
      */
-    private final Racer racer3;
+    private final List<Registration> registrations = new ArrayList<>();
 
     /**
-     * the racer #4
+     * Creates a new championship race with the specified racers and environment.
+     * @param racers the racers, there must be 4 since the race result is stored
+     * @param environment
+     * @param broadcaster the broadcaster that will be used to update fans about the race progress.
+     * @param results the race results
      */
-    private final Racer racer4;
+    public Race(List<Racer> racers, Map<String, String> environment, RaceBroadcaster broadcaster, RaceResults results) {
+        this(racers, environment, broadcaster, results, null);
+    }
 
     /**
      * Creates a new race with the specified racers and environment.
-     * @param racer1
-     * @param racer2
-     * @param racer3
-     * @param racer4
+     * @param racers the racers
      * @param environment
      * @param broadcaster the broadcaster that will be used to update fans about the race progress.
-     * @param results the race results
+     * @param results the race results, if null the race result is not stored and does not count for the championship
+     * @param statistics where racers stage latencies are recorded, may be null
      */
-    public Race(Racer racer1, Racer racer2, Racer racer3, Racer racer4, Map<String, String> environment, RaceBroadcaster broadcaster, RaceResults results) {
-        this.racer1 = racer1;
-        this.racer2 = racer2;
-        this.racer3 = racer3;
-        this.racer4 = racer4;
+    public Race(List<Racer> racers, Map<String, String> environment, RaceBroadcaster broadcaster, RaceResults results, RaceStatistics statistics) {
+        if (results != null && racers.size() != 4) {
+            throw new IllegalArgumentException("championship races must have 4 racers");
+        }
+        this.racers = racers;
         this.environment = environment;
         this.broadcaster = broadcaster;
         this.results = results;
+        this.statistics = statistics;
     }
 
     /**
      * Starts the race.
      * @throws Exception if there is an unexpected issue with the race, such as racers taking too long being ready to start, or not finishing the race in time.
      */
-    public synchronized void run() throws Exception {
+    public void run() throws Exception {
         reset();
         broadcaster.start();
         registerRacers();
@@ -131,21 +135,23 @@ public class Race {
      * Resets the race state.
      */
     private void reset() {
-        startBarrier = new CyclicBarrier(5);
-        endCountDownLatch = new CountDownLatch(4);
+        startBarrier = new CyclicBarrier(racers.size() + 1);
+        endCountDownLatch = new CountDownLatch(racers.size());
         donePosition = new AtomicInteger(1);
-        abortedPosition = new AtomicInteger(4);
-        result = new RaceResult();
+        abortedPosition = new AtomicInteger(racers.size());
+        registrations.clear();
     }
 
     /**
      * Registers all racers.
      */
     private void registerRacers() {
-        racer1.setRegistration(new Registration(racer1, 1));
-        racer2.setRegistration(new Registration(racer2, 2));
-        racer3.setRegistration(new Registration(racer3, 3));
-        racer4.setRegistration(new Registration(racer4, 4));
+        for (int i = 0; i < racers.size(); i++) {
+            final Racer racer = racers.get(i);
+            final Registration registration = new Registration(racer, i + 1);
+            registrations.add(registration);
+            racer.setRegistration(registration);
+        }
     }
 
     /**
@@ -153,10 +159,9 @@ public class Race {
      */
     private void startEngines() {
         broadcaster.startYourEngines();
-        racer1.startEngine();
-        racer2.startEngine();
-        racer3.startEngine();
-        racer4.startEngine();
+        for (Racer racer : racers) {
+            racer.startEngine();
+        }
     }
 
     /**
@@ -173,14 +178,24 @@ public class Race {
      * @throws Exception if the race end has expired.
      */
     private void awaitEnd() throws Exception {
-        endCountDownLatch.await(90, TimeUnit.SECONDS);
+        final boolean ended = endCountDownLatch.await(90, TimeUnit.SECONDS);
         broadcaster.raceEnd();
+        if (!ended) {
+            throw new TimeoutException("racers did not finish the race in time");
+        }
     }
 
     /**
      * Process the race result.
      */
     private void processResult() {
+        if (results == null) {
+            return;
+        }
+        final RaceResult result = new RaceResult();
+        for (Registration registration : registrations) {
+            result.setPosition(registration, registration.position);
+        }
         results.add(result);
         broadcaster.raceResult(result);
         broadcaster.championshipStandings(new ChampionshipStandings().addAll(results).getEntryList());
@@ -198,6 +213,11 @@ public class Race {
          */
         private final Racer racer;
 
+        /**
+         * the racer's final position, 0 while racing
+         */
+        private volatile int position;
+
         /**
          *
          * @param racer
@@ -222,7 +242,7 @@ public class Race {
         public void done() {
             int racerPosition = donePosition.getAndIncrement();
             broadcast("finished the race.");
-            result.setPosition(this, racerPosition);
+            position = racerPosition;
             endCountDownLatch.countDown();
         }
 
@@ -233,7 +253,7 @@ public class Race {
             int racerPosition = abortedPosition.getAndDecrement();
             t.printStackTrace();
             broadcast("aborted the race. Reason: " + (t != null ? t.getMessage() : "N/A)"));
-            result.setPosition(this, racerPosition);
+            position = racerPosition;
             endCountDownLatch.countDown();
         }
 
@@ -261,6 +281,17 @@ public class Race {
             return number;
         }
 
+        /**
+         * Records the time the racer took to complete a race stage.
+         * @param stage the stage's name
+         * @param nanos
+         */
+        public void stageCompleted(String stage, long nanos) {
+            if (statistics != null) {
+                statistics.recordStage(stage, nanos);
+            }
+        }
+
         /**
          * Broadcasts a msg with respect to a race event.
          * @param msg
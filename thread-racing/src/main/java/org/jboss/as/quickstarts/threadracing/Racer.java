@@ -16,6 +16,7 @@
  */
 package org.jboss.as.quickstarts.threadracing;
 
+import org.jboss.as.quickstarts.threadracing.stage.RaceStage;
 import org.jboss.as.quickstarts.threadracing.stage.concurrency.EEConcurrencyRaceStage;
 import org.jboss.as.quickstarts.threadracing.stage.batch.BatchRaceStage;
 import org.jboss.as.quickstarts.threadracing.stage.jaxrs.JAXRSRaceStage;
@@ -143,15 +144,23 @@ public class Racer {
      * @throws Exception
      */
     private void runRaceStages() throws Exception {
-        batchRaceStage.run(registration);
-        registration.broadcast("completed the Batch 1.0 stage.");
-        eeConcurrencyRaceStage.run(registration);
-        registration.broadcast("completed the EE Concurrency 1.0 stage.");
-        jaxrsRaceStageRen.run(registration);
-        registration.broadcast("completed the JAX-RS 2.0 stage.");
-        jmsRaceStage.run(registration);
-        registration.broadcast("completed the JMS 2.0 stage.");
-        jsonRaceStageRen.run(registration);
-        registration.broadcast("completed the JSON 1.0 stage.");
+        runRaceStage("Batch 1.0", batchRaceStage);
+        runRaceStage("EE Concurrency 1.0", eeConcurrencyRaceStage);
+        runRaceStage("JAX-RS 2.0", jaxrsRaceStageRen);
+        runRaceStage("JMS 2.0", jmsRaceStage);
+        runRaceStage("JSON 1.0", jsonRaceStageRen);
+    }
+
+    /**
+     * Runs a race stage, and reports its completion and duration to the race.
+     * @param stageName
+     * @param raceStage
+     * @throws Exception
+     */
+    private void runRaceStage(String stageName, RaceStage raceStage) throws Exception {
+        final long start = System.nanoTime();
+        raceStage.run(registration);
+        registration.stageCompleted(stageName, System.nanoTime() - start);
+        registration.broadcast("completed the " + stageName + " stage.");
     }
 }
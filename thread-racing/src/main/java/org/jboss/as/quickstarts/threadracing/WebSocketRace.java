@@ -29,8 +29,11 @@ import javax.websocket.Session;
 import javax.websocket.server.HandshakeRequest;
 import javax.websocket.server.ServerEndpointConfig;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The app's entry point, a Web Socket {@link javax.websocket.server.ServerEndpoint}, which runs a race for each client connection established.
@@ -80,8 +83,13 @@ public class WebSocketRace {
      */
     @OnOpen
     public void onOpen(Session session) {
+        final WebSocketRaceBroadcaster broadcaster = buildRaceBroadcaster(session);
         try {
-            new Race(racer1, racer2, racer3, racer4, buildRaceEnvironment(session), new WebSocketRaceBroadcaster(session), raceResults).run();
+            new Race(Arrays.<Racer>asList(racer1, racer2, racer3, racer4), buildRaceEnvironment(session, PATH), broadcaster, raceResults).run();
+            if (broadcaster instanceof AsyncWebSocketRaceBroadcaster) {
+                // let the client receive all messages before closing the session
+                ((AsyncWebSocketRaceBroadcaster) broadcaster).flush(30, TimeUnit.SECONDS);
+            }
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
@@ -92,12 +100,25 @@ public class WebSocketRace {
         }
     }
 
+    /**
+     * Builds the race's broadcaster. By default messages are sent synchronously, with pauses in between, the query params async=true and theatrics=false change that.
+     * @param session
+     * @return
+     */
+    private WebSocketRaceBroadcaster buildRaceBroadcaster(Session session) {
+        final Map<String, List<String>> parameters = session.getRequestParameterMap();
+        final boolean async = parameters.containsKey("async") && Boolean.parseBoolean(parameters.get("async").get(0));
+        final boolean theatrics = !parameters.containsKey("theatrics") || Boolean.parseBoolean(parameters.get("theatrics").get(0));
+        return async ? new AsyncWebSocketRaceBroadcaster(session, theatrics) : new WebSocketRaceBroadcaster(session, theatrics);
+    }
+
     /**
      * Builds the race's environment, from the specified session.
      * @param session
+     * @param path the path of the session's server endpoint
      * @return
      */
-    private Map<String, String> buildRaceEnvironment(Session session) {
+    public static Map<String, String> buildRaceEnvironment(Session session, String path) {
         final Map<String, String> environment = new HashMap<>();
         final String host = (String) session.getUserProperties().get(ServerEndpointConfigurator.HOST_USER_PROP);
         if (host != null) {
@@ -105,8 +126,8 @@ public class WebSocketRace {
             environment.put(EnvironmentProperties.SERVER_NAME, hostSplit[0]);
             environment.put(EnvironmentProperties.SERVER_PORT, (hostSplit.length > 1 ? hostSplit[1] : "80"));
         }
-        final String requestURI = session.getRequestURI().toString();
-        final String rootPath = requestURI.equals(PATH) ? "" : requestURI.substring(0, (requestURI.length() - PATH.length()));
+        final String requestURI = session.getRequestURI().getPath();
+        final String rootPath = requestURI.equals(path) ? "" : requestURI.substring(0, (requestURI.length() - path.length()));
         environment.put(EnvironmentProperties.ROOT_PATH, rootPath);
         return environment;
     }
@@ -33,21 +33,36 @@ public class WebSocketRaceBroadcaster implements RaceBroadcaster {
     /**
      * the web socket's session where messages are sent.
      */
-    private final Session session;
+    protected final Session session;
+
+    /**
+     * if false there are no pauses between messages, the race is then broadcast as fast as possible
+     */
+    private final boolean theatrics;
 
     /**
      * Creates a new web socket broadcaster
      * @param session the session where race progress messages will be sent.
      */
     public WebSocketRaceBroadcaster(Session session) {
+        this(session, true);
+    }
+
+    /**
+     * Creates a new web socket broadcaster
+     * @param session the session where race progress messages will be sent.
+     * @param theatrics if false the broadcaster does not pause between messages
+     */
+    public WebSocketRaceBroadcaster(Session session, boolean theatrics) {
         this.session = session;
+        this.theatrics = theatrics;
     }
 
     /**
      * Sends a message to the web socket client.
      * @param message
      */
-    private void sendToClient(String message) {
+    protected void sendToClient(String message) {
         try {
             session.getBasicRemote().sendText(message);
         } catch (IOException e) {
@@ -60,6 +75,9 @@ public class WebSocketRaceBroadcaster implements RaceBroadcaster {
      * @param millis
      */
     private void pause(long millis) {
+        if (!theatrics) {
+            return;
+        }
         try {
             Thread.sleep(millis);
         } catch (InterruptedException e) {
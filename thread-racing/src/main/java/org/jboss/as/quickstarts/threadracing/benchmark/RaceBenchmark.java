@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.benchmark;
+
+import org.jboss.as.quickstarts.threadracing.Race;
+import org.jboss.as.quickstarts.threadracing.Racer;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs races as a load test of the app server subsystems used by the race stages, i.e. Batch, EE Concurrency, JAX-RS, JMS and JSON.
+ *
+ * Each round runs a number of concurrent races, in threads provided by the default {@link javax.enterprise.concurrent.ManagedThreadFactory}, and each race has a number of racers, each one running in its own managed thread. Benchmark races are not broadcast, and their results do not count for the championship.
+ *
+ * A race blocks its thread until its racers end, and the racers submit tasks to the default {@link javax.enterprise.concurrent.ManagedExecutorService}, thus races must not run in that executor's threads, or concurrent races would starve their own racers.
+ */
+public class RaceBenchmark {
+
+    @Resource
+    private ManagedThreadFactory managedThreadFactory;
+
+    /**
+     * provides new racer instances, with their own race stages
+     */
+    @Inject
+    private Instance<BenchmarkRacer> racerInstance;
+
+    /**
+     * Runs the benchmark.
+     * @param racers the number of racers in each race
+     * @param races the number of concurrent races in each round
+     * @param rounds the number of rounds
+     * @param environment the environment of all races
+     * @return the benchmark statistics report
+     * @throws Exception
+     */
+    public String run(int racers, int races, int rounds, Map<String, String> environment) throws Exception {
+        final RaceStatistics statistics = new RaceStatistics();
+        final long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            final List<Thread> threads = new ArrayList<>(races);
+            for (int i = 0; i < races; i++) {
+                final Thread thread = managedThreadFactory.newThread(() -> runRace(racers, environment, statistics));
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        return statistics.report(racers, System.nanoTime() - start);
+    }
+
+    /**
+     * Runs a single race, with new racers.
+     * @param racers
+     * @param environment
+     * @param statistics
+     */
+    private void runRace(int racers, Map<String, String> environment, RaceStatistics statistics) {
+        final List<Racer> raceRacers = new ArrayList<>(racers);
+        for (int i = 0; i < racers; i++) {
+            raceRacers.add(racerInstance.get());
+        }
+        try {
+            final long start = System.nanoTime();
+            new Race(raceRacers, environment, new SilentRaceBroadcaster(), null, statistics).run();
+            statistics.recordRace(System.nanoTime() - start);
+        } catch (Exception e) {
+            e.printStackTrace();
+            statistics.recordFailedRace();
+        } finally {
+            for (Racer racer : raceRacers) {
+                racerInstance.destroy(racer);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of a set of races, which may run concurrently: the latency of each race stage, of the races themselves, and the throughput.
+ */
+public class RaceStatistics {
+
+    /**
+     * the percentiles shown in the report
+     */
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private static final String[] PERCENTILE_LABELS = { "p50", "p90", "p99", "p99.9" };
+
+    /**
+     * the latency histogram of each stage, by stage name
+     */
+    private final ConcurrentMap<String, LatencyHistogram> stages = new ConcurrentHashMap<>();
+
+    /**
+     * the order of the stages in the report
+     */
+    private final Map<String, Integer> stageOrder = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram races = new LatencyHistogram();
+
+    private final LongAdder failedRaces = new LongAdder();
+
+    /**
+     * Records the time a racer took to complete a race stage.
+     * @param stage
+     * @param nanos
+     */
+    public void recordStage(String stage, long nanos) {
+        stages.computeIfAbsent(stage, name -> {
+            stageOrder.putIfAbsent(name, stageOrder.size());
+            return new LatencyHistogram();
+        }).record(nanos);
+    }
+
+    /**
+     * Records the time a race took, from the start until the results are known.
+     * @param nanos
+     */
+    public void recordRace(long nanos) {
+        races.record(nanos);
+    }
+
+    /**
+     * Records a race which did not complete.
+     */
+    public void recordFailedRace() {
+        failedRaces.increment();
+    }
+
+    /**
+     * Builds a text report of the statistics.
+     * @param racers the number of racers in each race
+     * @param elapsedNanos the wall clock time all races took
+     * @return
+     */
+    public String report(int racers, long elapsedNanos) {
+        final double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Races: %d completed, %d failed, %d racers each, in %.3f s%n", races.getCount(), failedRaces.sum(), racers, seconds));
+        sb.append(String.format("Throughput: %.2f races/s, %.2f racer stages/s%n%n", races.getCount() / seconds, totalStages() / seconds));
+        sb.append(String.format("%-20s %10s %10s", "latency (ms)", "count", "mean"));
+        for (String label : PERCENTILE_LABELS) {
+            sb.append(String.format(" %10s", label));
+        }
+        sb.append(String.format(" %10s%n", "max"));
+        stageOrder.entrySet().stream()
+            .sorted(Map.Entry.comparingByValue())
+            .forEach(entry -> appendHistogram(sb, entry.getKey(), stages.get(entry.getKey())));
+        appendHistogram(sb, "Race", races);
+        return sb.toString();
+    }
+
+    private long totalStages() {
+        long total = 0;
+        for (LatencyHistogram histogram : stages.values()) {
+            total += histogram.getCount();
+        }
+        return total;
+    }
+
+    private static void appendHistogram(StringBuilder sb, String name, LatencyHistogram histogram) {
+        sb.append(String.format("%-20s %10d %10.3f", name, histogram.getCount(), histogram.getMean() / 1000));
+        for (double percentile : PERCENTILES) {
+            sb.append(String.format(" %10.3f", histogram.getPercentile(percentile) / 1000.0));
+        }
+        sb.append(String.format(" %10.3f%n", histogram.getMax() / 1000.0));
+    }
+}
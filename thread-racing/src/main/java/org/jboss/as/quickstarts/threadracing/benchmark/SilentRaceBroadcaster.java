@@ -0,0 +1,57 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.benchmark;
+
+import org.jboss.as.quickstarts.threadracing.RaceBroadcaster;
+import org.jboss.as.quickstarts.threadracing.results.ChampionshipStandings;
+import org.jboss.as.quickstarts.threadracing.results.RaceResult;
+
+import java.util.List;
+
+/**
+ * A {@link org.jboss.as.quickstarts.threadracing.RaceBroadcaster} which broadcasts nothing, used by benchmark races, so that these measure the race stages only.
+ */
+public class SilentRaceBroadcaster implements RaceBroadcaster {
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void startYourEngines() {
+    }
+
+    @Override
+    public void readySetGo() {
+    }
+
+    @Override
+    public void raceProgress(String msg) {
+    }
+
+    @Override
+    public void raceEnd() {
+    }
+
+    @Override
+    public void raceResult(RaceResult result) {
+    }
+
+    @Override
+    public void championshipStandings(List<ChampionshipStandings.Entry> entries) {
+    }
+}
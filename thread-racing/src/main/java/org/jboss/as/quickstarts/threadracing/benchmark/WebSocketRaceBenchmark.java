@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.benchmark;
+
+import org.jboss.as.quickstarts.threadracing.WebSocketRace;
+
+import javax.inject.Inject;
+import javax.websocket.OnOpen;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Web Socket {@link javax.websocket.server.ServerEndpoint} which runs a race benchmark for each client connection established, and sends the report once done.
+ *
+ * The benchmark is configured through the query params racers (defaults to 4), races (concurrent races, defaults to 1) and rounds (defaults to 1), e.g. ws://localhost:8080/thread-racing/benchmark?racers=8&amp;races=16&amp;rounds=10
+ *
+ * Each param is capped, so that a single client can not tie up the server threads and the racer stages resources for hours.
+ */
+@javax.websocket.server.ServerEndpoint(value = WebSocketRaceBenchmark.PATH, configurator = WebSocketRace.ServerEndpointConfigurator.class)
+public class WebSocketRaceBenchmark {
+
+    public static final String PATH = "/benchmark";
+
+    /**
+     * the max number of racers in each race
+     */
+    public static final int MAX_RACERS = 32;
+
+    /**
+     * the max number of concurrent races in each round
+     */
+    public static final int MAX_RACES = 32;
+
+    /**
+     * the max number of rounds
+     */
+    public static final int MAX_ROUNDS = 100;
+
+    @Inject
+    private RaceBenchmark raceBenchmark;
+
+    /**
+     * Session opened handler, runs the benchmark.
+     * @param session
+     */
+    @OnOpen
+    public void onOpen(Session session) {
+        try {
+            final int racers = getIntParameter(session, "racers", 4, MAX_RACERS);
+            final int races = getIntParameter(session, "races", 1, MAX_RACES);
+            final int rounds = getIntParameter(session, "rounds", 1, MAX_ROUNDS);
+            session.getBasicRemote().sendText("Running " + rounds + " round(s) of " + races + " concurrent race(s) with " + racers + " racers...<br/>");
+            final String report = raceBenchmark.run(racers, races, rounds, WebSocketRace.buildRaceEnvironment(session, PATH));
+            session.getBasicRemote().sendText("<pre>" + report + "</pre>");
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                session.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    /**
+     * Retrieves a positive int query param.
+     * @param session
+     * @param name
+     * @param defaultValue the value if the param is not present
+     * @param maxValue the value used if the param is greater
+     * @return
+     */
+    private int getIntParameter(Session session, String name, int defaultValue, int maxValue) {
+        final Map<String, List<String>> parameters = session.getRequestParameterMap();
+        final List<String> values = parameters.get(name);
+        if (values == null || values.isEmpty()) {
+            return defaultValue;
+        }
+        final int value = Integer.parseInt(values.get(0));
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return Math.min(value, maxValue);
+    }
+}
@@ -43,13 +43,13 @@ public class ChampionshipStandings {
     private final Map<String, Integer> racerPointsTotals = new HashMap<>();
 
     /**
-     * Adds all race results.
+     * Adds all race results. The racers totals maintained by {@link RaceResults} are used, instead of going through each race result.
      * @param raceResults
      * @return
      */
     public ChampionshipStandings addAll(RaceResults raceResults) {
-        for (RaceResult raceResult : raceResults.findAll()) {
-            add(raceResult);
+        for (RacerPoints racerPoints : raceResults.findAllRacerPoints()) {
+            addPoints(racerPoints.getRacerName(), racerPoints.getPoints(), racerPointsTotals);
         }
         return this;
     }
@@ -74,16 +74,16 @@ public class ChampionshipStandings {
      * @param racerPointsTotals
      */
     private void processRacerResult(String racerName, int racerPosition, Map<String, Integer> racerPointsTotals) {
-        final int racerPoints;
-        if (racerPosition == 1) {
-            racerPoints = 4;
-        } else if (racerPosition == 2) {
-            racerPoints = 3;
-        } else if (racerPosition == 3) {
-            racerPoints = 2;
-        } else {
-            racerPoints = 1;
-        }
+        addPoints(racerName, getPoints(racerPosition), racerPointsTotals);
+    }
+
+    /**
+     * Adds points to the racer's totals.
+     * @param racerName
+     * @param racerPoints
+     * @param racerPointsTotals
+     */
+    private void addPoints(String racerName, int racerPoints, Map<String, Integer> racerPointsTotals) {
         final Integer racerPointsTotal = racerPointsTotals.get(racerName);
         if (racerPointsTotal == null) {
             racerPointsTotals.put(racerName, racerPoints);
@@ -92,6 +92,23 @@ public class ChampionshipStandings {
         }
     }
 
+    /**
+     * Retrieves the championship points of a race position.
+     * @param racerPosition
+     * @return
+     */
+    public static int getPoints(int racerPosition) {
+        if (racerPosition == 1) {
+            return 4;
+        } else if (racerPosition == 2) {
+            return 3;
+        } else if (racerPosition == 3) {
+            return 2;
+        } else {
+            return 1;
+        }
+    }
+
     /**
      * Builds the championship standings list. The list is ordered by racer's points, being the first entry the racer currently with more points. Racers with same points will be sorted by name.
      * @return
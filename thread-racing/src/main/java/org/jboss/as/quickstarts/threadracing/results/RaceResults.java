@@ -16,9 +16,15 @@
  */
 package org.jboss.as.quickstarts.threadracing.results;
 
+import javax.annotation.Resource;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
 import java.util.List;
 
 /**
@@ -36,12 +42,49 @@ public class RaceResults {
     @PersistenceContext
     private EntityManager em;
 
+    @Resource
+    private SessionContext sessionContext;
+
     /**
      * Adds a race result.
      * @param e
      */
     public void add(RaceResult e) {
         em.persist(e);
+        // update the racers totals in the same transaction
+        addPoints(e.getRacer1Name(), e.getRacer1Position());
+        addPoints(e.getRacer2Name(), e.getRacer2Position());
+        addPoints(e.getRacer3Name(), e.getRacer3Position());
+        addPoints(e.getRacer4Name(), e.getRacer4Position());
+    }
+
+    /**
+     * Adds the points of a race position to the racer's totals.
+     * @param racerName
+     * @param racerPosition
+     */
+    private void addPoints(String racerName, int racerPosition) {
+        // a missing row can't be locked, so the racer's totals are created first, in a transaction of their own
+        if (em.find(RacerPoints.class, racerName) == null) {
+            sessionContext.getBusinessObject(RaceResults.class).createRacerPoints(racerName);
+        }
+        // lock the racer's totals, concurrent races may be updating it too
+        final RacerPoints racerPoints = em.find(RacerPoints.class, racerName, LockModeType.PESSIMISTIC_WRITE);
+        racerPoints.setPoints(racerPoints.getPoints() + ChampionshipStandings.getPoints(racerPosition));
+    }
+
+    /**
+     * Creates the racer's totals with no points, unless a concurrent race created them first.
+     * @param racerName
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void createRacerPoints(String racerName) {
+        try {
+            em.persist(new RacerPoints(racerName, 0));
+            em.flush();
+        } catch (PersistenceException e) {
+            // the row exists already, this transaction is rolled back and the caller locks the existing row
+        }
     }
 
     /**
@@ -51,4 +94,12 @@ public class RaceResults {
     public List<RaceResult> findAll() {
         return em.createNamedQuery("RaceResult.findAll", RaceResult.class).getResultList();
     }
+
+    /**
+     * Finds the championship points of all racers.
+     * @return
+     */
+    public List<RacerPoints> findAllRacerPoints() {
+        return em.createNamedQuery("RacerPoints.findAll", RacerPoints.class).getResultList();
+    }
 }
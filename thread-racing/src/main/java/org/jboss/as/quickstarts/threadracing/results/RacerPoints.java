@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.results;
+
+import java.io.Serializable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ * The championship points of a racer, i.e. the sum of the points obtained in all race results, a JPA entity.
+ *
+ * The totals are updated when a race result is added, so the championship standings don't need to go through all race results.
+ */
+@Entity
+@Table(name = "THREAD_RACE_STANDINGS")
+@NamedQueries({
+        @NamedQuery(name = "RacerPoints.findAll", query = "SELECT e FROM RacerPoints e")
+})
+public class RacerPoints implements Serializable {
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String racerName;
+
+    @Column
+    private int points;
+
+    public RacerPoints() {
+    }
+
+    public RacerPoints(String racerName, int points) {
+        this.racerName = racerName;
+        this.points = points;
+    }
+
+    public String getRacerName() {
+        return racerName;
+    }
+
+    public void setRacerName(String racerName) {
+        this.racerName = racerName;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public void setPoints(int points) {
+        this.points = points;
+    }
+}
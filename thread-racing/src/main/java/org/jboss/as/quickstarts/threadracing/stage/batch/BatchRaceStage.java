@@ -19,11 +19,9 @@ package org.jboss.as.quickstarts.threadracing.stage.batch;
 import org.jboss.as.quickstarts.threadracing.Race;
 import org.jboss.as.quickstarts.threadracing.stage.RaceStage;
 
-import javax.batch.operations.JobOperator;
-import javax.batch.runtime.BatchRuntime;
-import javax.batch.runtime.BatchStatus;
-import javax.batch.runtime.JobExecution;
+import javax.inject.Inject;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The Batch 1.0 race stage, which starts a job execution and waits for it to complete.
@@ -36,17 +34,15 @@ import java.util.Properties;
  */
 public class BatchRaceStage implements RaceStage {
 
+    /**
+     * cdi injection of the bean which starts jobs and provides futures to await their end
+     */
+    @Inject
+    private JobCompletions jobCompletions;
+
     @Override
     public void run(Race.Registration registration) throws Exception {
-        // retrieve the job operator
-        JobOperator jobOperator = BatchRuntime.getJobOperator();
-        // start the race.xml job
-        Long executionId = jobOperator.start("race", new Properties());
-        // would be nice if the job start would provide a Future object wrt the job execution, perhaps something for next spec revision
-        // just check every 1ms if the job status is completed
-        JobExecution jobExecution = jobOperator.getJobExecution(executionId);
-        while (jobExecution.getBatchStatus() != BatchStatus.COMPLETED) {
-            Thread.sleep(1);
-        }
+        // start the race.xml job, which notifies its end through the JobCompletionListener, and wait for it
+        jobCompletions.start("race", new Properties()).get(60, TimeUnit.SECONDS);
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.stage.batch;
+
+import javax.batch.api.listener.AbstractJobListener;
+import javax.batch.runtime.BatchStatus;
+import javax.batch.runtime.context.JobContext;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * The job listener which notifies {@link JobCompletions} when a job ends.
+ */
+@Named
+public class JobCompletionListener extends AbstractJobListener {
+
+    @Inject
+    private JobContext jobContext;
+
+    @Inject
+    private JobCompletions jobCompletions;
+
+    @Override
+    public void afterJob() {
+        // the final status is stored only after the job listeners ran: a job which completed is still STARTED here, one
+        // which is being stopped is STOPPING, so anything but STARTED or COMPLETED means the job did not complete
+        final BatchStatus batchStatus = jobContext.getBatchStatus();
+        if (batchStatus == BatchStatus.STARTED || batchStatus == BatchStatus.COMPLETED) {
+            jobCompletions.jobEnded(jobContext.getExecutionId(), null);
+        } else {
+            jobCompletions.jobEnded(jobContext.getExecutionId(), new IllegalStateException("Job " + jobContext.getJobName() + " ended with status " + batchStatus));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.stage.batch;
+
+import javax.batch.operations.JobOperator;
+import javax.batch.runtime.BatchRuntime;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Starts Batch jobs and provides a {@link java.util.concurrent.CompletableFuture} for each job execution, which is completed by the {@link JobCompletionListener} when the job ends, so there is no need to poll the job execution's status.
+ *
+ * Jobs started through this bean must declare the {@link JobCompletionListener} as a job listener.
+ */
+@ApplicationScoped
+public class JobCompletions {
+
+    /**
+     * the futures of the job executions that did not end yet, or which ended before the caller retrieved the future
+     */
+    private final ConcurrentMap<Long, CompletableFuture<Long>> futures = new ConcurrentHashMap<>();
+
+    /**
+     * Starts a job.
+     * @param jobName the job's name, i.e. the name of its XML descriptor, without the ".xml"
+     * @param jobParameters
+     * @return a future which completes with the job execution id when the job ends, or exceptionally if the job did not complete. The job execution's status may not be updated yet when the future completes.
+     */
+    public CompletableFuture<Long> start(String jobName, Properties jobParameters) {
+        final JobOperator jobOperator = BatchRuntime.getJobOperator();
+        final long executionId = jobOperator.start(jobName, jobParameters);
+        // the job may have ended already, in such case the listener has created and completed the future
+        final CompletableFuture<Long> future = futures.computeIfAbsent(executionId, id -> new CompletableFuture<>());
+        future.whenComplete((id, throwable) -> futures.remove(executionId));
+        return future;
+    }
+
+    /**
+     * Completes the future of a job execution which ended.
+     * @param executionId
+     * @param failure the reason why the job did not complete, null if it completed
+     */
+    void jobEnded(long executionId, Throwable failure) {
+        final CompletableFuture<Long> future = futures.computeIfAbsent(executionId, id -> new CompletableFuture<>());
+        if (failure == null) {
+            future.complete(executionId);
+        } else {
+            future.completeExceptionally(failure);
+        }
+    }
+}
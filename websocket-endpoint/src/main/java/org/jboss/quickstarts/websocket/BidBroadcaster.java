@@ -0,0 +1,208 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.quickstarts.websocket;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.websocket.Session;
+
+import org.jboss.quickstarts.websocket.model.Bidding;
+import org.jboss.quickstarts.websocket.model.BiddingFactory;
+
+/**
+ * Sends the state of the bidding to all open sessions.
+ * <p/>
+ *
+ * Bids do not trigger a send of their own. Instead the bidding is checked every {@link #TICK_MILLIS} milliseconds, and when
+ * it changed, or a second passed so that the countdown moved, it is sent to every session as a binary frame through its
+ * asynchronous remote.
+ * <p/>
+ *
+ * A session gets a full snapshot when it connects, and again when the bidding is reset. After that it only gets deltas: the
+ * current state with the bids that came after the last sequence number it acknowledged. Sessions that acknowledged the same
+ * sequence number share one frame, so in the usual case a tick encodes a single frame, whatever the number of sessions and
+ * bids. A session that is still receiving its previous frame is skipped for this tick. It does not lose anything, since
+ * its next delta starts from what it acknowledged.
+ */
+@ApplicationScoped
+public class BidBroadcaster {
+
+    static final long TICK_MILLIS = 100;
+
+    private static final long COUNTDOWN_MILLIS = 1000;
+
+    private Logger logger = Logger.getLogger(getClass().getName());
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private final Map<Session, Client> clients = new ConcurrentHashMap<>();
+
+    private final BiddingEncoder encoder;
+
+    private ScheduledFuture<?> ticker;
+
+    // only used by the ticker, which never runs concurrently with itself
+    private Bidding lastBidding;
+    private long lastVersion;
+    private long lastSent;
+
+    public BidBroadcaster() {
+        this(new BiddingEncoder());
+    }
+
+    BidBroadcaster(BiddingEncoder encoder) {
+        this.encoder = encoder;
+    }
+
+    @PostConstruct
+    void start() {
+        logger.info("Starting bid broadcaster");
+        ticker = scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.cancel(false);
+    }
+
+    public void register(Session session) {
+        clients.put(session, new Client());
+    }
+
+    public void unregister(Session session) {
+        clients.remove(session);
+    }
+
+    // sends a full snapshot to one session, without waiting for the next tick
+    public void sendSnapshot(Session session) {
+        Client client = clients.get(session);
+        if (client != null) {
+            Bidding bidding = BiddingFactory.getBidding();
+            Bidding.Snapshot snapshot = bidding.getSnapshot();
+            sendSnapshot(session, client, bidding, snapshot,
+                encoder.encodeSnapshot(bidding, snapshot, System.currentTimeMillis()));
+        }
+    }
+
+    // records that the session has received the bids of the given bidding up to the given sequence number
+    public void acknowledge(Session session, long bidding, int sequence) {
+        Client client = clients.get(session);
+        Bidding current = BiddingFactory.getBidding();
+        if (client != null && client.bidding == bidding && current.getId() == bidding) {
+            // no client has bids that were not made yet, and each distinct sequence number costs a delta frame per tick
+            int acknowledged = Math.min(sequence, current.getSnapshot().getBidCount());
+            if (acknowledged > client.acknowledged) {
+                client.acknowledged = acknowledged;
+            }
+        }
+    }
+
+    void tick() {
+        try {
+            Bidding bidding = BiddingFactory.getBidding();
+            Bidding.Snapshot snapshot = bidding.getSnapshot();
+            long now = System.currentTimeMillis();
+            if (bidding == lastBidding && snapshot.getVersion() == lastVersion && now - lastSent < COUNTDOWN_MILLIS) {
+                return;
+            }
+            lastBidding = bidding;
+            lastVersion = snapshot.getVersion();
+            lastSent = now;
+
+            ByteBuffer fullFrame = null;
+            // the delta frames of this tick, by the sequence number they start after
+            Map<Integer, ByteBuffer> deltaFrames = new HashMap<>();
+            for (Map.Entry<Session, Client> entry : clients.entrySet()) {
+                Session session = entry.getKey();
+                Client client = entry.getValue();
+                if (client.bidding != bidding.getId()) {
+                    if (fullFrame == null) {
+                        fullFrame = encoder.encodeSnapshot(bidding, snapshot, now);
+                    }
+                    sendSnapshot(session, client, bidding, snapshot, fullFrame);
+                } else {
+                    ByteBuffer frame = deltaFrames.computeIfAbsent(client.acknowledged,
+                        sequence -> encoder.encodeDelta(bidding, snapshot, sequence, now));
+                    send(session, client, frame);
+                }
+            }
+        } catch (RuntimeException e) {
+            // an exception would cancel the periodic task
+            logger.log(Level.WARNING, "Failed to broadcast the bidding", e);
+        }
+    }
+
+    private void sendSnapshot(Session session, Client client, Bidding bidding, Bidding.Snapshot snapshot, ByteBuffer frame) {
+        if (send(session, client, frame)) {
+            // the snapshot is the starting point for the deltas, until the client acknowledges something newer
+            client.acknowledged = snapshot.getBidCount();
+            client.bidding = bidding.getId();
+        }
+    }
+
+    private boolean send(Session session, Client client, ByteBuffer frame) {
+        if (!session.isOpen()) {
+            clients.remove(session);
+            return false;
+        }
+        if (!client.sending.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            // every session reads the shared frame through its own position
+            session.getAsyncRemote().sendBinary(frame.duplicate(), result -> {
+                client.sending.set(false);
+                if (!result.isOK()) {
+                    logger.log(Level.FINE, "Failed to send the bidding to session " + session.getId(), result.getException());
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            client.sending.set(false);
+            logger.log(Level.FINE, "Failed to send the bidding to session " + session.getId(), e);
+            return false;
+        }
+    }
+
+    // what is known about one session
+    private static final class Client {
+
+        // set while a frame is being sent to the session
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        // the bidding the session has a snapshot of, 0 if none
+        private volatile long bidding;
+
+        // the sequence number of the latest bid the session has
+        private volatile int acknowledged;
+    }
+}
@@ -16,14 +16,9 @@
  */
 package org.jboss.quickstarts.websocket;
 
-import java.io.IOException;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.logging.Logger;
 
-import javax.annotation.PostConstruct;
-import javax.websocket.EncodeException;
+import javax.inject.Inject;
 import javax.websocket.OnClose;
 import javax.websocket.OnError;
 import javax.websocket.OnMessage;
@@ -44,55 +39,39 @@ import org.jboss.quickstarts.websocket.model.BiddingFactory;
  * @author <a href="mailto:benevides@redhat.com">Rafael Benevides</a>
  *
  */
-@ServerEndpoint(value = "/bidsocket", encoders = { BiddingEncoder.class }, decoders = { MessageDecoder.class })
+@ServerEndpoint(value = "/bidsocket", decoders = { MessageDecoder.class })
 public class BidWebSocketEndpoint {
 
     private Logger logger = Logger.getLogger(getClass().getName());
 
-    private static Set<Session> clients = Collections.synchronizedSet(new HashSet<>());
-
-    private Runnable intervalNotifier;
-
-    // It starts a Thread that notifies all sessions each second
-    @PostConstruct
-    public void startIntervalNotifier() {
-        logger.info("Starting interval notifier");
-        intervalNotifier = new Runnable() {
-
-            @Override
-            public void run() {
-                try {
-                    while (true) {
-                        Thread.sleep(1000);
-                        notifyAllSessions(BiddingFactory.getBidding());
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-        };
-        new Thread(intervalNotifier).start();
-    }
+    // It notifies all sessions of changes to the Bidding, and each second
+    @Inject
+    private BidBroadcaster broadcaster;
 
     // store the session once that it's opened
     @OnOpen
     public void onOpen(Session session) {
         logger.info("New websocket session opened: " + session.getId());
-        clients.add(session);
-
+        broadcaster.register(session);
     }
 
     // remove the session after it's closed
     @OnClose
     public void onClose(Session session) {
         logger.info("Websoket session closed: " + session.getId());
-        clients.remove(session);
+        broadcaster.unregister(session);
     }
 
     // This method receives a Message that contains a command
     // The Message object is "decoded" by the MessageDecoder class
     @OnMessage
-    public void onMessage(Session session, Message message) throws IOException, EncodeException {
+    public void onMessage(Session session, Message message) {
+        if (message.getCommand().equals("connect")) {
+            broadcaster.sendSnapshot(session);
+        }
+        if (message.getCommand().equals("ack") && message.getBidding() != null && message.getSequence() != null) {
+            broadcaster.acknowledge(session, message.getBidding(), message.getSequence());
+        }
         if (message.getCommand().equals("newBid")) {
             Bidding bidding = BiddingFactory.getBidding();
             bidding.addBid(new Bid(session.getId(), message.getBidValue()));
@@ -104,7 +83,7 @@ public class BidWebSocketEndpoint {
         if (message.getCommand().equals("resetBid")) {
             BiddingFactory.resetBidding();
         }
-        notifyAllSessions(BiddingFactory.getBidding());
+        // the changes reach all sessions with the next broadcast
     }
 
     // Exception handling
@@ -112,12 +91,4 @@ public class BidWebSocketEndpoint {
     public void error(Session session, Throwable t) {
         t.printStackTrace();
     }
-
-    // This method sends the same Bidding object to all opened sessions
-    private void notifyAllSessions(Bidding bidding) throws EncodeException, IOException {
-        for (Session s : clients) {
-            s.getBasicRemote().sendObject(bidding);
-        }
-
-    }
 }
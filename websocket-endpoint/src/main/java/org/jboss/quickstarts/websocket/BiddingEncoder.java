@@ -16,65 +16,96 @@
  */
 package org.jboss.quickstarts.websocket;
 
-import java.io.StringWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
 import javax.json.JsonWriter;
-import javax.websocket.EncodeException;
-import javax.websocket.Encoder.Text;
-import javax.websocket.EndpointConfig;
 
 import org.jboss.quickstarts.websocket.model.Bid;
 import org.jboss.quickstarts.websocket.model.Bidding;
+import org.jboss.quickstarts.websocket.model.Item;
 
-// This class is responsible to encode the Bidding object in a String
-// that will be sent to clients
-public class BiddingEncoder implements Text<Bidding> {
+// This class is responsible to encode the Bidding in the frames that the BidBroadcaster sends to clients.
+// It uses the JSON-P API to create a JSON representation
+public class BiddingEncoder {
 
-    @Override
-    public void destroy() {
+    // The frames sent by the BidBroadcaster are UTF-8 JSON in a read only buffer, so that a frame is encoded once and the
+    // same bytes are sent to every session that needs it. Every frame carries the id of the bidding and the sequence number
+    // of its latest bid, which the client sends back to acknowledge it.
 
+    // a frame with the item and every bid, for a client that has nothing yet
+    public ByteBuffer encodeSnapshot(Bidding bidding, Bidding.Snapshot snapshot, long now) {
+        JsonObjectBuilder jsonBuilder = frame("snapshot", bidding, snapshot, now)
+            .add("item", item(bidding.getItem()));
+        jsonBuilder.add("bids", bidsAfter(snapshot, 0));
+        return toBuffer(jsonBuilder);
     }
 
-    @Override
-    public void init(EndpointConfig config) {
-
+    // a frame with the current state, but only the bids after the given sequence number
+    public ByteBuffer encodeDelta(Bidding bidding, Bidding.Snapshot snapshot, int sequence, long now) {
+        JsonObjectBuilder jsonBuilder = frame("delta", bidding, snapshot, now);
+        jsonBuilder.add("bids", bidsAfter(snapshot, sequence));
+        return toBuffer(jsonBuilder);
     }
 
-    @Override
-    public String encode(Bidding bidding) throws EncodeException {
-        // It uses the JSON-P API to create a JSON representation
+    private JsonObjectBuilder frame(String type, Bidding bidding, Bidding.Snapshot snapshot, long now) {
         JsonObjectBuilder jsonBuilder = Json.createObjectBuilder()
-            .add("item", Json.createObjectBuilder()
-                .add("buyNowPrice", bidding.getItem().getBuyNowPrice())
-                .add("description", bidding.getItem().getDescription())
-                .add("imagePath", bidding.getItem().getImagePath())
-                .add("title", bidding.getItem().getTitle())
-                .build())
-            .add("bidStatus", bidding.getBidStatus().toString())
+            .add("type", type)
+            .add("bidding", bidding.getId())
+            .add("seq", snapshot.getBidCount());
+        addState(jsonBuilder, snapshot, now);
+        return jsonBuilder;
+    }
+
+    private void addState(JsonObjectBuilder jsonBuilder, Bidding.Snapshot bidding, long now) {
+        jsonBuilder.add("bidStatus", bidding.getBidStatus().toString())
             .add("currentPrice", bidding.getCurrentPrice())
             .add("secondsLeft", 0);
         if (bidding.getDueDate() != null) {
             jsonBuilder.add("dueDate", bidding.getDueDate().getTime());
         }
-        if (bidding.getSecondsLeft() != null) {
-            jsonBuilder.add("secondsLeft", bidding.getSecondsLeft());
+        if (bidding.getSecondsLeft(now) != null) {
+            jsonBuilder.add("secondsLeft", bidding.getSecondsLeft(now));
         }
+    }
+
+    private JsonObject item(Item item) {
+        return Json.createObjectBuilder()
+            .add("buyNowPrice", item.getBuyNowPrice())
+            .add("description", item.getDescription())
+            .add("imagePath", item.getImagePath())
+            .add("title", item.getTitle())
+            .build();
+    }
+
+    private JsonObjectBuilder bid(Bid bid) {
+        return Json.createObjectBuilder()
+            .add("dateTime", bid.getDateTime().getTime())
+            .add("value", bid.getValue())
+            .add("id", bid.getId());
+    }
+
+    private JsonArrayBuilder bidsAfter(Bidding.Snapshot snapshot, int sequence) {
         JsonArrayBuilder jsonBidArray = Json.createArrayBuilder();
-        for (Bid bid : bidding.getBids()) {
-            jsonBidArray.add(Json.createObjectBuilder()
-                .add("dateTime", bid.getDateTime().getTime())
-                .add("value", bid.getValue())
-                .add("id", bid.getId())
-                .build());
+        // the bids come latest first, and the latest has the highest sequence number
+        int bidSequence = snapshot.getBidCount();
+        for (Bid bid : snapshot.getBidsAfter(sequence)) {
+            jsonBidArray.add(bid(bid).add("seq", bidSequence--));
         }
-        jsonBuilder.add("bids", jsonBidArray);
-        StringWriter stWriter = new StringWriter();
-        JsonWriter jsonWriter = Json.createWriter(stWriter);
+        return jsonBidArray;
+    }
+
+    private ByteBuffer toBuffer(JsonObjectBuilder jsonBuilder) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter jsonWriter = Json.createWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
         jsonWriter.writeObject(jsonBuilder.build());
         jsonWriter.close();
-        return stWriter.toString();
+        return ByteBuffer.wrap(out.toByteArray()).asReadOnlyBuffer();
     }
 }
@@ -23,9 +23,20 @@ public class Message {
 
     private Integer bidValue;
 
+    // the bidding and bid sequence number of an "ack" command
+    private Long bidding;
+
+    private Integer sequence;
+
     public Message(String command, Integer bidValue) {
+        this(command, bidValue, null, null);
+    }
+
+    public Message(String command, Integer bidValue, Long bidding, Integer sequence) {
         this.command = command;
         this.bidValue = bidValue;
+        this.bidding = bidding;
+        this.sequence = sequence;
     }
 
     public String getCommand() {
@@ -36,4 +47,12 @@ public class Message {
         return bidValue;
     }
 
+    public Long getBidding() {
+        return bidding;
+    }
+
+    public Integer getSequence() {
+        return sequence;
+    }
+
 }
@@ -35,7 +35,7 @@ public class MessageDecoder implements Decoder.Text<Message> {
     // create a Message object from JSON
     @Override
     public Message decode(String msg) throws DecodeException {
-        logger.info("Decoding: " + msg);
+        logger.fine("Decoding: " + msg);
         // It uses the JSON-P API to parse JSON content
         JsonReader reader = Json.createReader(new StringReader(msg));
         JsonObject jsonObject = reader.readObject();
@@ -44,7 +44,15 @@ public class MessageDecoder implements Decoder.Text<Message> {
         if (jsonObject.containsKey("bidValue")) {
             bidValue = jsonObject.getInt("bidValue");
         }
-        return new Message(command, bidValue);
+        Long bidding = null;
+        if (jsonObject.containsKey("bidding")) {
+            bidding = jsonObject.getJsonNumber("bidding").longValue();
+        }
+        Integer sequence = null;
+        if (jsonObject.containsKey("seq")) {
+            sequence = jsonObject.getInt("seq");
+        }
+        return new Message(command, bidValue, bidding, sequence);
     }
 
     @Override
@@ -16,101 +16,226 @@
  */
 package org.jboss.quickstarts.websocket.model;
 
-import java.util.Calendar;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import java.util.GregorianCalendar;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 //This class represents the Bidding of an item
+//
+//All of its state lives in one immutable Snapshot that is replaced with compare-and-set, so bids arriving on many
+//WebSocket threads never wait for a lock, and a reader always sees a price, status and bid history that belong together.
+//The bid history is an append-only linked list shared between snapshots, so a new bid costs the same however many came before.
 public class Bidding {
 
     static final long ONE_MINUTE_IN_MILLIS = 60000;// millisecs
 
-    private Item item = null;
+    private static final AtomicLong ids = new AtomicLong();
 
-    private BidStatus bidStatus = BidStatus.NOT_STARTED;
+    // tells a reset bidding apart from the one it replaced
+    private final long id = ids.incrementAndGet();
 
-    private Date dueDate = null;
+    private final Item item;
 
-    private Integer currentPrice = null;
-
-    private Integer secondsLeft = null;
-
-    // The bids uses a comparator to order it based on the its date.
-    private Set<Bid> bids = new TreeSet<Bid>(new Comparator<Bid>() {
-
-        @Override
-        public int compare(Bid o1, Bid o2) {
-            return o2.getDateTime().compareTo(o1.getDateTime());
-        }
-    });
+    private final AtomicReference<Snapshot> snapshot;
 
     public Bidding(Item item, Integer currentPrice) {
         this.item = item;
-        this.currentPrice = currentPrice;
+        this.snapshot = new AtomicReference<>(new Snapshot(0, BidStatus.NOT_STARTED, currentPrice, 0, null));
     }
 
-    public BidStatus getBidStatus() {
-        return bidStatus;
+    public long getId() {
+        return id;
     }
 
     public Item getItem() {
         return item;
     }
 
+    // The current state of the bidding, which will not change anymore
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    public BidStatus getBidStatus() {
+        return getSnapshot().getBidStatus();
+    }
+
     public Date getDueDate() {
-        return dueDate;
+        return getSnapshot().getDueDate();
     }
 
-    public Set<Bid> getBids() {
-        return bids;
+    public List<Bid> getBids() {
+        return getSnapshot().getBids();
     }
 
-    public void addBid(Bid bid) {
-        this.getBids().add(bid);
-        // Just update the price if the bidding is not SOLD or EXPIRED
-        if (!bidStatus.equals(BidStatus.SOLD) || !bidStatus.equals(BidStatus.EXPIRED)) {
-            this.currentPrice = getCurrentPrice() + bid.getValue();
-        }
-        // Update the status and due date if the bidding had not started yet
-        if (getBidStatus().equals(BidStatus.NOT_STARTED)) {
-            this.bidStatus = BidStatus.STARTED;
-            long now = new Date().getTime();
-            this.dueDate = new Date(now + (1 * ONE_MINUTE_IN_MILLIS));
-        }
-        // change the status to SOLD if the bidding is more than the buyNowPrice
-        if (getCurrentPrice() > getItem().getBuyNowPrice()) {
-            bidStatus = BidStatus.SOLD;
-        }
+    public Integer getCurrentPrice() {
+        return getSnapshot().getCurrentPrice();
+    }
+
+    // calculate how much seconds left to the bidding to become EXPIRED
+    public Integer getSecondsLeft() {
+        return getSnapshot().getSecondsLeft(System.currentTimeMillis());
+    }
+
+    // Adds the bid, unless the item has already been SOLD or the bidding has EXPIRED
+    public boolean addBid(Bid bid) {
+        return addBid(bid, System.currentTimeMillis());
+    }
+
+    // Adds the bid, unless the item has already been SOLD or the bidding has EXPIRED, or is due at the given time but was not
+    // expired yet
+    public boolean addBid(Bid bid, long now) {
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            if (current.isClosed() || (current.bidStatus == BidStatus.STARTED && now >= current.dueDate)) {
+                return false;
+            }
+            int price = current.currentPrice + bid.getValue();
+            BidStatus status = current.bidStatus;
+            long dueDate = current.dueDate;
+            // Update the status and due date if the bidding had not started yet
+            if (status == BidStatus.NOT_STARTED) {
+                status = BidStatus.STARTED;
+                dueDate = now + ONE_MINUTE_IN_MILLIS;
+            }
+            // change the status to SOLD if the bidding is more than the buyNowPrice
+            if (price > item.getBuyNowPrice()) {
+                status = BidStatus.SOLD;
+            }
+            next = new Snapshot(current.version + 1, status, price, dueDate, new BidLog(bid, current.bids));
+        } while (!snapshot.compareAndSet(current, next));
+        return true;
     }
 
     public void expire() {
-        this.bidStatus = BidStatus.EXPIRED;
+        Snapshot current;
+        do {
+            current = snapshot.get();
+            if (current.isClosed()) {
+                return;
+            }
+        } while (!snapshot.compareAndSet(current, current.withStatus(BidStatus.EXPIRED, current.currentPrice)));
     }
 
-    public Integer getCurrentPrice() {
-        return currentPrice;
+    // expire the Bidding if there's no more seconds left for the due date
+    public boolean expireIfDue(long now) {
+        Snapshot current;
+        do {
+            current = snapshot.get();
+            Integer secondsLeft = current.getSecondsLeft(now);
+            if (secondsLeft == null || secondsLeft > 0) {
+                return false;
+            }
+        } while (!snapshot.compareAndSet(current, current.withStatus(BidStatus.EXPIRED, current.currentPrice)));
+        return true;
     }
 
     // Sell the item using its item "buy now" price
     public void buyItNow() {
-        if (getBidStatus().equals(BidStatus.STARTED) || getBidStatus().equals(BidStatus.NOT_STARTED)) {
-            bidStatus = BidStatus.SOLD;
-            currentPrice = item.getBuyNowPrice();
-        }
+        Snapshot current;
+        do {
+            current = snapshot.get();
+            if (current.isClosed()) {
+                return;
+            }
+        } while (!snapshot.compareAndSet(current, current.withStatus(BidStatus.SOLD, item.getBuyNowPrice())));
     }
 
-    // calculate how much seconds left to the bidding to become EXPIRED
-    public Integer getSecondsLeft() {
-        if (getBidStatus().equals(BidStatus.STARTED)) {
-            Calendar now = new GregorianCalendar();
-            secondsLeft = (int) ((getDueDate().getTime() - now.getTime().getTime()) / 1000L);
-            return secondsLeft;
-        } else {
-            return null;
+    // An immutable state of the bidding. Every change makes a new snapshot with a higher version.
+    public static final class Snapshot {
+
+        private final long version;
+
+        private final BidStatus bidStatus;
+
+        private final int currentPrice;
+
+        // 0 until the first bid starts the bidding
+        private final long dueDate;
+
+        // the latest bid first
+        private final BidLog bids;
+
+        private Snapshot(long version, BidStatus bidStatus, int currentPrice, long dueDate, BidLog bids) {
+            this.version = version;
+            this.bidStatus = bidStatus;
+            this.currentPrice = currentPrice;
+            this.dueDate = dueDate;
+            this.bids = bids;
+        }
+
+        private Snapshot withStatus(BidStatus status, int price) {
+            return new Snapshot(version + 1, status, price, dueDate, bids);
+        }
+
+        private boolean isClosed() {
+            return bidStatus == BidStatus.SOLD || bidStatus == BidStatus.EXPIRED;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public BidStatus getBidStatus() {
+            return bidStatus;
+        }
+
+        public Integer getCurrentPrice() {
+            return currentPrice;
+        }
+
+        public Date getDueDate() {
+            return dueDate == 0 ? null : new Date(dueDate);
+        }
+
+        public Integer getSecondsLeft(long now) {
+            if (bidStatus == BidStatus.STARTED) {
+                return (int) ((dueDate - now) / 1000L);
+            } else {
+                return null;
+            }
+        }
+
+        // The number of bids, which is also the sequence number of the latest bid. The first bid has sequence number 1.
+        public int getBidCount() {
+            return bids == null ? 0 : bids.count;
+        }
+
+        // The bids ordered by their date, the latest first
+        public List<Bid> getBids() {
+            return getBidsAfter(0);
+        }
+
+        // The bids with a sequence number higher than the given one, the latest first
+        public List<Bid> getBidsAfter(int sequence) {
+            if (bids == null || bids.count <= sequence) {
+                return Collections.emptyList();
+            }
+            List<Bid> result = new ArrayList<>(bids.count - Math.max(sequence, 0));
+            for (BidLog node = bids; node != null && node.count > sequence; node = node.previous) {
+                result.add(node.bid);
+            }
+            return Collections.unmodifiableList(result);
         }
     }
 
+    private static final class BidLog {
+
+        private final Bid bid;
+
+        private final BidLog previous;
+
+        private final int count;
+
+        private BidLog(Bid bid, BidLog previous) {
+            this.bid = bid;
+            this.previous = previous;
+            this.count = previous == null ? 1 : previous.count + 1;
+        }
+    }
 }
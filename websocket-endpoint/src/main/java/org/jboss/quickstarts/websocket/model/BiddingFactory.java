@@ -16,25 +16,31 @@
  */
 package org.jboss.quickstarts.websocket.model;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 public class BiddingFactory {
 
-    private static Bidding bidding;
+    private static final AtomicReference<Bidding> bidding = new AtomicReference<>();
 
     // obtain a singleton instance of the Bidding
-    public static synchronized Bidding getBidding() {
-        if (bidding == null) {
-            resetBidding();
+    public static Bidding getBidding() {
+        Bidding current = bidding.get();
+        if (current == null) {
+            bidding.compareAndSet(null, newBidding());
+            current = bidding.get();
         }
         // expire the Bidding if there's no more seconds left for the due date
-        if (bidding.getSecondsLeft() != null && bidding.getSecondsLeft() <= 0) {
-            bidding.expire();
-        }
-        return bidding;
+        current.expireIfDue(System.currentTimeMillis());
+        return current;
     }
 
     // creates a new bidding
-    public static synchronized void resetBidding() {
+    public static void resetBidding() {
+        bidding.set(newBidding());
+    }
+
+    private static Bidding newBidding() {
         Item item = new Item("1 Red Fedora Hat", "A beautiful red fedora hat that makes you charming!", 1000, "/resources/gfx/redfedora1.jpg");
-        bidding = new Bidding(item, 100);
+        return new Bidding(item, 100);
     }
 }
@@ -114,10 +114,13 @@ function openWebSocket() {
     var wsurl = wsProtocol + "://" + loc.hostname + ':' + port + loc.pathname
             + "/../bidsocket";
     wsocket = new WebSocket(wsurl);
+    // The bidding is sent as binary frames with UTF-8 JSON
+    wsocket.binaryType = 'arraybuffer';
     wsocket.onmessage = function(evt) {
-        var json = JSON.parse(evt.data);
+        var json = JSON.parse(new TextDecoder('utf-8').decode(evt.data));
         console.log(json);
-        updateBid(json);
+        updateBid(applyFrame(json));
+        sendWebSocketAck(bidding.bidding, bidding.seq);
     }
     wsocket.onerror = function(evt) {
         console.error(evt);
@@ -127,6 +130,30 @@ function openWebSocket() {
     });
 }
 
+// A snapshot frame has the whole bidding. A delta frame has its current state
+// and the bids after the last sequence number that we acknowledged, which may
+// include bids that we already have.
+function applyFrame(frame) {
+    if (frame.type === 'snapshot') {
+        bidding = frame;
+    } else {
+        var newBids = $.grep(frame.bids, function(bid) {
+            return bid.seq > bidding.seq;
+        });
+        bidding.bids = newBids.concat(bidding.bids);
+        bidding.seq = Math.max(bidding.seq, frame.seq);
+        bidding.bidStatus = frame.bidStatus;
+        bidding.currentPrice = frame.currentPrice;
+        bidding.secondsLeft = frame.secondsLeft;
+        bidding.dueDate = frame.dueDate;
+    }
+    return bidding;
+}
+
+function sendWebSocketAck(biddingId, seq) {
+    wsocket.send("{\"command\": \"ack\", \"bidding\": " + biddingId + ", \"seq\": " + seq + "}");
+}
+
 function sendWebSocketMessage(command, bidValue) {
     jsonMsg = "{\"command\": \"" + command + "\"";
     if (bidValue > 0) {
@@ -137,4 +164,5 @@ function sendWebSocketMessage(command, bidValue) {
 }
 
 var wsocket;
+var bidding;
 $(document).ready(openWebSocket());
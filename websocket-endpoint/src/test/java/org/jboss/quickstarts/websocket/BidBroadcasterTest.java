@@ -0,0 +1,203 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.quickstarts.websocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import org.jboss.quickstarts.websocket.model.Bid;
+import org.jboss.quickstarts.websocket.model.Bidding;
+import org.jboss.quickstarts.websocket.model.BiddingFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BidBroadcasterTest {
+
+    private CountingEncoder encoder;
+
+    private BidBroadcaster broadcaster;
+
+    private Bidding bidding;
+
+    @Before
+    public void setUp() {
+        BiddingFactory.resetBidding();
+        bidding = BiddingFactory.getBidding();
+        encoder = new CountingEncoder();
+        broadcaster = new BidBroadcaster(encoder);
+    }
+
+    @Test
+    public void testNewSessionsShareOneSnapshot() {
+        FakeSession first = register("1");
+        FakeSession second = register("2");
+
+        broadcaster.tick();
+
+        assertEquals(1, encoder.snapshots);
+        assertEquals(Arrays.asList("snapshot 0"), first.frames);
+        assertEquals(Arrays.asList("snapshot 0"), second.frames);
+    }
+
+    @Test
+    public void testDeltaFramesAreSharedPerAcknowledgedSequence() {
+        FakeSession first = register("1");
+        FakeSession second = register("2");
+        FakeSession third = register("3");
+        FakeSession fourth = register("4");
+        broadcaster.tick();
+        addBids(3);
+
+        broadcaster.acknowledge(first.session, bidding.getId(), 2);
+        broadcaster.acknowledge(second.session, bidding.getId(), 2);
+        broadcaster.acknowledge(third.session, bidding.getId(), 3);
+        broadcaster.tick();
+
+        // one frame after bid 2, one after bid 3, and one after the snapshot for the session that did not acknowledge
+        assertEquals(Arrays.asList(0, 2, 3), encoder.sortedDeltas());
+        assertEquals("delta 2", first.lastFrame());
+        assertEquals("delta 2", second.lastFrame());
+        assertEquals("delta 3", third.lastFrame());
+        assertEquals("delta 0", fourth.lastFrame());
+        assertSame(first.lastBuffer.array(), second.lastBuffer.array());
+    }
+
+    @Test
+    public void testAcknowledgedSequenceIsClampedToTheBidCount() {
+        FakeSession first = register("1");
+        FakeSession second = register("2");
+        broadcaster.tick();
+        addBids(2);
+
+        broadcaster.acknowledge(first.session, bidding.getId(), 1000);
+        broadcaster.acknowledge(second.session, bidding.getId(), Integer.MAX_VALUE);
+        broadcaster.tick();
+
+        // both acknowledged every bid there is, so they share the same delta
+        assertEquals(Arrays.asList(2), encoder.sortedDeltas());
+        assertEquals("delta 2", first.lastFrame());
+        assertEquals("delta 2", second.lastFrame());
+    }
+
+    @Test
+    public void testAcknowledgementOfAnotherBiddingIsIgnored() {
+        FakeSession first = register("1");
+        broadcaster.tick();
+        addBids(2);
+
+        broadcaster.acknowledge(first.session, bidding.getId() + 1, 2);
+        broadcaster.tick();
+
+        assertEquals("delta 0", first.lastFrame());
+    }
+
+    private void addBids(int count) {
+        for (int i = 0; i < count; i++) {
+            bidding.addBid(new Bid("bidder", 1));
+        }
+    }
+
+    private FakeSession register(String id) {
+        FakeSession session = new FakeSession(id);
+        broadcaster.register(session.session);
+        return session;
+    }
+
+    // the frames only tell their kind and the sequence number they start after
+    private static class CountingEncoder extends BiddingEncoder {
+
+        private int snapshots;
+
+        private final List<Integer> deltas = new ArrayList<>();
+
+        @Override
+        public ByteBuffer encodeSnapshot(Bidding bidding, Bidding.Snapshot snapshot, long now) {
+            snapshots++;
+            return ByteBuffer.wrap(("snapshot " + snapshot.getBidCount()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public ByteBuffer encodeDelta(Bidding bidding, Bidding.Snapshot snapshot, int sequence, long now) {
+            deltas.add(sequence);
+            return ByteBuffer.wrap(("delta " + sequence).getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<Integer> sortedDeltas() {
+            List<Integer> sorted = new ArrayList<>(deltas);
+            sorted.sort(null);
+            return sorted;
+        }
+    }
+
+    // a session which receives every frame at once
+    private static class FakeSession {
+
+        private final Session session;
+
+        private final List<String> frames = new ArrayList<>();
+
+        private ByteBuffer lastBuffer;
+
+        FakeSession(String id) {
+            RemoteEndpoint.Async remote = (RemoteEndpoint.Async) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { RemoteEndpoint.Async.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("sendBinary")) {
+                        lastBuffer = (ByteBuffer) args[0];
+                        ByteBuffer frame = lastBuffer.duplicate();
+                        byte[] bytes = new byte[frame.remaining()];
+                        frame.get(bytes);
+                        frames.add(new String(bytes, StandardCharsets.UTF_8));
+                        ((SendHandler) args[1]).onResult(new SendResult());
+                    }
+                    return null;
+                });
+            session = (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Session.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isOpen":
+                            return true;
+                        case "getId":
+                            return id;
+                        case "getAsyncRemote":
+                            return remote;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+        }
+
+        String lastFrame() {
+            return frames.get(frames.size() - 1);
+        }
+    }
+}
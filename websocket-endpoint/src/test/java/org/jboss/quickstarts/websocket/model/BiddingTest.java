@@ -0,0 +1,194 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.quickstarts.websocket.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class BiddingTest {
+
+    private static final long NOW = 1000000L;
+
+    private static List<Integer> values(List<Bid> bids) {
+        List<Integer> values = new ArrayList<>();
+        for (Bid bid : bids) {
+            values.add(bid.getValue());
+        }
+        return values;
+    }
+
+    private static Bidding newBidding(int currentPrice, int buyNowPrice) {
+        return new Bidding(new Item("Fedora", "A red hat", buyNowPrice, "redfedora1.jpg"), currentPrice);
+    }
+
+    @Test
+    public void testConcurrentBidsAreAllAdded() throws Exception {
+        final int threads = 8;
+        final int bidsPerThread = 1000;
+        Bidding bidding = newBidding(10, Integer.MAX_VALUE);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final String bidder = "bidder" + t;
+                futures.add(executor.submit((Callable<Integer>) () -> {
+                    start.await();
+                    int added = 0;
+                    for (int i = 0; i < bidsPerThread; i++) {
+                        if (bidding.addBid(new Bid(bidder, 1), NOW)) {
+                            added++;
+                        }
+                    }
+                    return added;
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                assertEquals(Integer.valueOf(bidsPerThread), future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Bidding.Snapshot snapshot = bidding.getSnapshot();
+        assertEquals(BidStatus.STARTED, snapshot.getBidStatus());
+        assertEquals(Integer.valueOf(10 + threads * bidsPerThread), snapshot.getCurrentPrice());
+        assertEquals(threads * bidsPerThread, snapshot.getBidCount());
+        assertEquals(threads * bidsPerThread, snapshot.getBids().size());
+        assertEquals(threads * bidsPerThread, snapshot.getVersion());
+    }
+
+    @Test
+    public void testBidsAfterASequenceNumber() {
+        Bidding bidding = newBidding(10, 1000);
+        for (int value = 1; value <= 5; value++) {
+            assertTrue(bidding.addBid(new Bid("bidder", value), NOW));
+        }
+        Bidding.Snapshot snapshot = bidding.getSnapshot();
+
+        assertEquals(5, snapshot.getBidCount());
+        assertEquals(Arrays.asList(5, 4, 3, 2, 1), values(snapshot.getBids()));
+        assertEquals(Arrays.asList(5, 4, 3, 2, 1), values(snapshot.getBidsAfter(0)));
+        assertEquals(Arrays.asList(5, 4, 3, 2, 1), values(snapshot.getBidsAfter(-1)));
+        assertEquals(Arrays.asList(5, 4), values(snapshot.getBidsAfter(3)));
+        assertTrue(snapshot.getBidsAfter(5).isEmpty());
+        assertTrue(snapshot.getBidsAfter(42).isEmpty());
+        assertTrue(newBidding(10, 1000).getSnapshot().getBidsAfter(0).isEmpty());
+
+        // a snapshot does not see the bids made after it
+        assertTrue(bidding.addBid(new Bid("bidder", 6), NOW));
+        assertEquals(Arrays.asList(5, 4), values(snapshot.getBidsAfter(3)));
+        assertEquals(Arrays.asList(6, 5, 4), values(bidding.getSnapshot().getBidsAfter(3)));
+    }
+
+    @Test
+    public void testFirstBidStartsTheBidding() {
+        Bidding bidding = newBidding(10, 100);
+        assertEquals(BidStatus.NOT_STARTED, bidding.getBidStatus());
+
+        assertTrue(bidding.addBid(new Bid("jane", 5), NOW));
+
+        assertEquals(BidStatus.STARTED, bidding.getBidStatus());
+        assertEquals(Integer.valueOf(15), bidding.getCurrentPrice());
+        assertEquals(NOW + Bidding.ONE_MINUTE_IN_MILLIS, bidding.getDueDate().getTime());
+    }
+
+    @Test
+    public void testSoldBiddingRejectsBids() {
+        Bidding bidding = newBidding(90, 100);
+        assertTrue(bidding.addBid(new Bid("jane", 20), NOW));
+        assertEquals(BidStatus.SOLD, bidding.getBidStatus());
+
+        assertFalse(bidding.addBid(new Bid("john", 5), NOW));
+        assertEquals(Integer.valueOf(110), bidding.getCurrentPrice());
+        assertEquals(1, bidding.getSnapshot().getBidCount());
+    }
+
+    @Test
+    public void testBoughtBiddingRejectsBids() {
+        Bidding bidding = newBidding(10, 100);
+        bidding.buyItNow();
+        assertEquals(BidStatus.SOLD, bidding.getBidStatus());
+        assertEquals(Integer.valueOf(100), bidding.getCurrentPrice());
+
+        assertFalse(bidding.addBid(new Bid("john", 5), NOW));
+        assertEquals(Integer.valueOf(100), bidding.getCurrentPrice());
+    }
+
+    @Test
+    public void testExpiredBiddingRejectsBids() {
+        Bidding bidding = newBidding(10, 100);
+        assertTrue(bidding.addBid(new Bid("jane", 5), NOW));
+        bidding.expire();
+        assertEquals(BidStatus.EXPIRED, bidding.getBidStatus());
+
+        assertFalse(bidding.addBid(new Bid("john", 5), NOW));
+        assertEquals(Integer.valueOf(15), bidding.getCurrentPrice());
+    }
+
+    @Test
+    public void testBidAfterTheDueDateIsRejected() {
+        Bidding bidding = newBidding(10, 100);
+        assertTrue(bidding.addBid(new Bid("jane", 5), NOW));
+
+        assertTrue(bidding.addBid(new Bid("john", 5), NOW + Bidding.ONE_MINUTE_IN_MILLIS - 1));
+        // not expired by the scheduler yet, but due
+        assertFalse(bidding.addBid(new Bid("jane", 5), NOW + Bidding.ONE_MINUTE_IN_MILLIS));
+
+        assertEquals(BidStatus.STARTED, bidding.getBidStatus());
+        assertEquals(Integer.valueOf(20), bidding.getCurrentPrice());
+        assertEquals(2, bidding.getSnapshot().getBidCount());
+    }
+
+    @Test
+    public void testExpireIfDue() {
+        Bidding bidding = newBidding(10, 100);
+        // a bidding that did not start has no due date
+        assertFalse(bidding.expireIfDue(NOW));
+
+        assertTrue(bidding.addBid(new Bid("jane", 5), NOW));
+        assertFalse(bidding.expireIfDue(NOW + Bidding.ONE_MINUTE_IN_MILLIS - 1000));
+        assertEquals(BidStatus.STARTED, bidding.getBidStatus());
+
+        assertTrue(bidding.expireIfDue(NOW + Bidding.ONE_MINUTE_IN_MILLIS));
+        assertEquals(BidStatus.EXPIRED, bidding.getBidStatus());
+        // it only expires once
+        assertFalse(bidding.expireIfDue(NOW + 2 * Bidding.ONE_MINUTE_IN_MILLIS));
+    }
+
+    @Test
+    public void testSoldBiddingDoesNotExpire() {
+        Bidding bidding = newBidding(90, 100);
+        assertTrue(bidding.addBid(new Bid("jane", 20), NOW));
+
+        assertFalse(bidding.expireIfDue(NOW + Bidding.ONE_MINUTE_IN_MILLIS));
+        assertEquals(BidStatus.SOLD, bidding.getBidStatus());
+    }
+}